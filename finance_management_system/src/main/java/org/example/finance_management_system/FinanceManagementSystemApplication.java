@@ -2,8 +2,10 @@ package org.example.finance_management_system;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class FinanceManagementSystemApplication {
 
     public static void main(String[] args) {
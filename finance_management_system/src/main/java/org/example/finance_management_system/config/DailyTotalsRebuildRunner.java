@@ -0,0 +1,43 @@
+package org.example.finance_management_system.config;
+
+import org.example.finance_management_system.repository.TransactionRepository;
+import org.example.finance_management_system.service.DailyTotalsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backfills the daily_category_totals rollup. Runs automatically the first time the application
+ * starts with an empty rollup and existing transactions, and on demand when started with
+ * --rebuild-daily-totals (optionally --rebuild-daily-totals=userId for a single user).
+ */
+@Component
+public class DailyTotalsRebuildRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailyTotalsRebuildRunner.class);
+
+    static final String REBUILD_OPTION = "rebuild-daily-totals";
+
+    @Autowired
+    private DailyTotalsService dailyTotalsService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption(REBUILD_OPTION)) {
+            Long userId = null;
+            if (args.getOptionValues(REBUILD_OPTION) != null && !args.getOptionValues(REBUILD_OPTION).isEmpty()) {
+                userId = Long.valueOf(args.getOptionValues(REBUILD_OPTION).get(0));
+            }
+            dailyTotalsService.rebuild(userId);
+        } else if (dailyTotalsService.isEmpty() && transactionRepository.count() > 0) {
+            logger.info("daily_category_totals is empty, backfilling it from transactions");
+            dailyTotalsService.rebuild(null);
+        }
+    }
+}
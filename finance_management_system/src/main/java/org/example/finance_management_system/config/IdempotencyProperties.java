@@ -0,0 +1,32 @@
+package org.example.finance_management_system.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Settings for {@link org.example.finance_management_system.interceptor.IdempotencyInterceptor}.
+ * Routes are POST handler mapping patterns without the /api prefix, e.g.
+ * {@code idempotency.routes=/transactions,/transfers}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "idempotency")
+public class IdempotencyProperties {
+
+    private boolean enabled = true;
+
+    // How long a key and its stored response are kept
+    private long ttlMs = 86_400_000;
+
+    // Upper bound on completed responses held in memory; older ones are served from the table
+    private long maxCachedResponses = 10_000;
+
+    // How often expired keys are deleted from the table
+    private long purgeIntervalMs = 3_600_000;
+
+    private Set<String> routes = new HashSet<>();
+}
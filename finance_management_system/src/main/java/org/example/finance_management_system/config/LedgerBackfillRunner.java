@@ -0,0 +1,37 @@
+package org.example.finance_management_system.config;
+
+import org.example.finance_management_system.service.LedgerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Journals the balances of accounts that existed before every balance change went through the
+ * ledger, as their opening balance, so they reconcile too. Runs on every start; once an account
+ * has its opening posting it is not touched again.
+ */
+@Component
+public class LedgerBackfillRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerBackfillRunner.class);
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            int backfilled = ledgerService.backfillOpeningBalances();
+            if (backfilled > 0) {
+                logger.info("Posted opening balances for {} accounts that predate the ledger", backfilled);
+            }
+        } catch (DuplicateKeyException e) {
+            // Another instance starting at the same time got there first
+            logger.info("Opening balances are being backfilled by another instance");
+        }
+    }
+}
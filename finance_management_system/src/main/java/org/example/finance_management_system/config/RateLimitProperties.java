@@ -0,0 +1,32 @@
+package org.example.finance_management_system.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Limits for {@link org.example.finance_management_system.interceptor.RateLimitInterceptor}.
+ * Routes are handler mapping patterns without the /api prefix, e.g.
+ * {@code rate-limit.routes[/transactions/{id}]=120}. A limit of 0 disables limiting for a route.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Length of the sliding window
+    private long windowMs = 60_000;
+
+    // Requests per window for routes without their own entry
+    private int defaultLimit = 300;
+
+    // Upper bound on tracked (client, route) pairs; least recently used pairs are dropped
+    private long maxKeys = 100_000;
+
+    private Map<String, Integer> routes = new HashMap<>();
+}
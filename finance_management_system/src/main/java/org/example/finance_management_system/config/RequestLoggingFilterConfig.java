@@ -1,5 +1,6 @@
 package org.example.finance_management_system.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.filter.CommonsRequestLoggingFilter;
@@ -7,7 +8,9 @@ import org.springframework.web.filter.CommonsRequestLoggingFilter;
 @Configuration
 public class RequestLoggingFilterConfig {
 
+    // Superseded by the access log in production, where request-logging.enabled=false
     @Bean
+    @ConditionalOnProperty(name = "request-logging.enabled", havingValue = "true", matchIfMissing = true)
     public CommonsRequestLoggingFilter logFilter() {
         CommonsRequestLoggingFilter filter = new CommonsRequestLoggingFilter();
         filter.setIncludeQueryString(true);
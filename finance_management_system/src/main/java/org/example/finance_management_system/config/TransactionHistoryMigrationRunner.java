@@ -0,0 +1,49 @@
+package org.example.finance_management_system.config;
+
+import org.example.finance_management_system.service.TransactionHistoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Brings existing transaction_history rows up to date on startup.
+ * <ul>
+ *     <li>Always: fills in user_id on rows written before history carried its owner.</li>
+ *     <li>With --compact-transaction-history: shrinks UPDATE rows written as full snapshots
+ *     down to the changed fields. Each page commits on its own, so the job can be
+ *     interrupted and started again.</li>
+ * </ul>
+ */
+@Component
+public class TransactionHistoryMigrationRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionHistoryMigrationRunner.class);
+
+    static final String COMPACT_OPTION = "compact-transaction-history";
+
+    private static final int PAGE_SIZE = 1000;
+
+    @Autowired
+    private TransactionHistoryService transactionHistoryService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int backfilled = transactionHistoryService.backfillUserIds();
+        if (backfilled > 0) {
+            logger.info("Backfilled user_id on {} transaction history rows", backfilled);
+        }
+
+        if (!args.containsOption(COMPACT_OPTION)) {
+            return;
+        }
+        Long lastId = 0L;
+        int pages = 0;
+        while ((lastId = transactionHistoryService.compactPage(lastId, PAGE_SIZE)) != null) {
+            pages++;
+        }
+        logger.info("Compacted transaction history in {} pages", pages);
+    }
+}
@@ -1,21 +1,43 @@
 package org.example.finance_management_system.config;
 
+import org.example.finance_management_system.interceptor.IdempotencyInterceptor;
 import org.example.finance_management_system.interceptor.LoggingInterceptor;
+import org.example.finance_management_system.interceptor.RateLimitInterceptor;
+import org.example.finance_management_system.security.CurrentUserArgumentResolver;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
     @Autowired
     private LoggingInterceptor loggingInterceptor;
 
+    @Autowired
+    private RateLimitInterceptor rateLimitInterceptor;
+
+    @Autowired
+    private IdempotencyInterceptor idempotencyInterceptor;
+
+    @Autowired
+    private CurrentUserArgumentResolver currentUserArgumentResolver;
+
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(loggingInterceptor);
+        registry.addInterceptor(rateLimitInterceptor);
+        registry.addInterceptor(idempotencyInterceptor);
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(currentUserArgumentResolver);
     }
 
     @Override
@@ -23,7 +45,8 @@ public class WebConfig implements WebMvcConfigurer {
         registry.addMapping("/**")
                 .allowedOrigins("http://localhost:3000")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
-                .allowedHeaders("Authorization", "Content-Type", "Accept", "X-Requested-With", "Cache-Control")
+                .allowedHeaders("Authorization", "Content-Type", "Accept", "X-Requested-With", "Cache-Control",
+                        IdempotencyInterceptor.HEADER)
                 .allowCredentials(true)
                 .maxAge(3600);
     }
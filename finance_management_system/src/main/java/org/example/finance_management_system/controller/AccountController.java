@@ -2,33 +2,40 @@ package org.example.finance_management_system.controller;
 
 import jakarta.validation.Valid;
 import org.example.finance_management_system.dto.request.AccountRequest;
+import org.example.finance_management_system.dto.request.KeysetPage;
+import org.example.finance_management_system.dto.request.TransactionCursor;
 import org.example.finance_management_system.dto.request.TransferRequest;
 import org.example.finance_management_system.dto.response.AccountResponse;
 import org.example.finance_management_system.dto.response.MessageResponse;
-import org.example.finance_management_system.dto.response.TransactionResponse;
+import org.example.finance_management_system.dto.response.TransferPageResponse;
 import org.example.finance_management_system.dto.response.TransferResponse;
 import org.example.finance_management_system.exception.BadRequestException;
+import org.example.finance_management_system.exception.ForbiddenException;
 import org.example.finance_management_system.exception.ResourceNotFoundException;
+import org.example.finance_management_system.interceptor.IdempotencyInterceptor;
 import org.example.finance_management_system.model.Account;
 import org.example.finance_management_system.model.Transaction;
 import org.example.finance_management_system.model.Transfer;
-import org.example.finance_management_system.model.User;
 import org.example.finance_management_system.repository.AccountRepository;
 import org.example.finance_management_system.repository.TransactionRepository;
 import org.example.finance_management_system.repository.TransferRepository;
-import org.example.finance_management_system.repository.UserRepository;
-import org.example.finance_management_system.security.services.UserDetailsImpl;
+import org.example.finance_management_system.security.CurrentUser;
+import org.example.finance_management_system.service.AccountService;
+import org.example.finance_management_system.service.BalanceHistoryService;
+import org.example.finance_management_system.service.EntityLookupCache;
+import org.example.finance_management_system.service.LedgerService;
+import org.example.finance_management_system.service.TransferService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -41,7 +48,7 @@ public class AccountController {
     private AccountRepository accountRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private EntityLookupCache entityLookupCache;
 
     @Autowired
     private TransactionRepository transactionRepository;
@@ -49,11 +56,21 @@ public class AccountController {
     @Autowired
     private TransferRepository transferRepository;
 
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private BalanceHistoryService balanceHistoryService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private LedgerService ledgerService;
+
     @GetMapping({"/accounts", "/api/accounts"})
-    public ResponseEntity<?> getAllAccounts() {
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                .getAuthentication().getPrincipal();
-        List<Account> accounts = accountRepository.findByUserId(userDetails.getId());
+    public ResponseEntity<?> getAllAccounts(CurrentUser currentUser) {
+        List<Account> accounts = accountRepository.findByUserId(currentUser.getId());
         List<AccountResponse> responseList = accounts.stream()
                 .map(AccountResponse::fromEntity)
                 .collect(Collectors.toList());
@@ -61,15 +78,12 @@ public class AccountController {
     }
 
     @GetMapping({"/accounts/{id}", "/api/accounts/{id}"})
-    public ResponseEntity<?> getAccountById(@PathVariable Long id) {
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                .getAuthentication().getPrincipal();
-
+    public ResponseEntity<?> getAccountById(@PathVariable Long id, CurrentUser currentUser) {
         Account account = accountRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Account", "id", id));
 
         // Check if account belongs to the authenticated user
-        if (!account.getUser().getId().equals(userDetails.getId())) {
+        if (!account.getUser().getId().equals(currentUser.getId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(new MessageResponse("You don't have permission to access this account"));
         }
@@ -77,27 +91,14 @@ public class AccountController {
     }
 
     @PostMapping({"/accounts", "/api/accounts"})
-    public ResponseEntity<?> createAccount(@Valid @RequestBody AccountRequest request) {
+    public ResponseEntity<?> createAccount(@Valid @RequestBody AccountRequest request, CurrentUser currentUser) {
         try {
-            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                    .getAuthentication().getPrincipal();
-
             // Check if account name already exists for this user
-            if (accountRepository.existsByNameAndUserId(request.getName(), userDetails.getId())) {
+            if (accountRepository.existsByNameAndUserId(request.getName(), currentUser.getId())) {
                 throw new BadRequestException("Account with this name already exists");
             }
 
-            User user = userRepository.findById(userDetails.getId())
-                    .orElseThrow(() -> new ResourceNotFoundException("User", "id", userDetails.getId()));
-
-            Account account = new Account();
-            account.setName(request.getName());
-            account.setType(request.getType());
-            account.setBalance(request.getBalance());
-            account.setAccountNumber(request.getAccountNumber());
-            account.setDescription(request.getDescription());
-            account.setUser(user);
-            accountRepository.save(account);
+            Account account = accountService.createAccount(request, currentUser.reference());
 
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(AccountResponse.fromEntity(account));
@@ -114,40 +115,31 @@ public class AccountController {
 
     @PutMapping({"/accounts/{id}", "/api/accounts/{id}"})
     public ResponseEntity<?> updateAccount(@PathVariable Long id,
-                                           @Valid @RequestBody AccountRequest request) {
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                .getAuthentication().getPrincipal();
-
+                                           @Valid @RequestBody AccountRequest request,
+                                           CurrentUser currentUser) {
         Account account = accountRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Account", "id", id));
 
         // Check if account belongs to the authenticated user
-        if (!account.getUser().getId().equals(userDetails.getId())) {
+        if (!account.getUser().getId().equals(currentUser.getId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(new MessageResponse("You don't have permission to update this account"));
         }
 
-        // Update account details
-        account.setName(request.getName());
-        account.setType(request.getType());
-        account.setBalance(request.getBalance());
-        account.setAccountNumber(request.getAccountNumber());
-        account.setDescription(request.getDescription());
-        accountRepository.save(account);
+        // Update account details; a changed balance is posted as a correction
+        account = accountService.updateAccount(account, request);
+        entityLookupCache.evictAccount(id);
         return ResponseEntity.ok(AccountResponse.fromEntity(account));
     }
 
     @DeleteMapping({"/accounts/{id}", "/api/accounts/{id}"})
-    public ResponseEntity<?> deleteAccount(@PathVariable Long id) {
+    public ResponseEntity<?> deleteAccount(@PathVariable Long id, CurrentUser currentUser) {
         try {
-            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                    .getAuthentication().getPrincipal();
-
             Account account = accountRepository.findById(id)
                     .orElseThrow(() -> new ResourceNotFoundException("Account", "id", id));
 
             // Check if account belongs to the authenticated user
-            if (!account.getUser().getId().equals(userDetails.getId())) {
+            if (!account.getUser().getId().equals(currentUser.getId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(new MessageResponse("You don't have permission to delete this account"));
             }
@@ -171,6 +163,8 @@ public class AccountController {
             }
 
             accountRepository.delete(account);
+            balanceHistoryService.deleteHistory(id);
+            entityLookupCache.evictAccount(id);
             return ResponseEntity.ok(new MessageResponse("Account deleted successfully"));
         } catch (DataIntegrityViolationException e) {
             logger.error("Foreign key constraint violation when deleting account", e);
@@ -183,6 +177,69 @@ public class AccountController {
         }
     }
 
+    // Closing balance of the account at the end of a day
+    @GetMapping({"/accounts/{id}/balance-at", "/api/accounts/{id}/balance-at"})
+    public ResponseEntity<?> getBalanceAt(@PathVariable Long id,
+                                          @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                          CurrentUser currentUser) {
+        Account account = accountRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Account", "id", id));
+
+        // Check if account belongs to the authenticated user
+        if (!account.getUser().getId().equals(currentUser.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new MessageResponse("You don't have permission to access this account"));
+        }
+
+        return ResponseEntity.ok(balanceHistoryService.balanceAt(account, date));
+    }
+
+    // Closing balances from 'from' to 'to' inclusive, one point per DAY, WEEK or MONTH
+    @GetMapping({"/accounts/{id}/balance-series", "/api/accounts/{id}/balance-series"})
+    public ResponseEntity<?> getBalanceSeries(@PathVariable Long id,
+                                              @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                              @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                              @RequestParam(value = "step", defaultValue = "DAY") String step,
+                                              CurrentUser currentUser) {
+        Account account = accountRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Account", "id", id));
+
+        // Check if account belongs to the authenticated user
+        if (!account.getUser().getId().equals(currentUser.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new MessageResponse("You don't have permission to access this account"));
+        }
+
+        BalanceHistoryService.Step parsedStep;
+        try {
+            parsedStep = BalanceHistoryService.Step.valueOf(step.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("step must be one of DAY, WEEK or MONTH"));
+        }
+
+        try {
+            return ResponseEntity.ok(balanceHistoryService.series(account, from, to, parsedStep));
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    // The account balance next to the sum of its ledger lines
+    @GetMapping({"/accounts/{id}/reconciliation", "/api/accounts/{id}/reconciliation"})
+    public ResponseEntity<?> getReconciliation(@PathVariable Long id, CurrentUser currentUser) {
+        Account account = accountRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Account", "id", id));
+
+        // Check if account belongs to the authenticated user
+        if (!account.getUser().getId().equals(currentUser.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new MessageResponse("You don't have permission to access this account"));
+        }
+
+        return ResponseEntity.ok(ledgerService.reconcile(account));
+    }
+
     @GetMapping({"/accounts/types", "/api/accounts/types"})
     public ResponseEntity<?> getAccountTypes() {
         return ResponseEntity.ok(Account.AccountType.values());
@@ -190,34 +247,21 @@ public class AccountController {
 
     // Add these endpoints to support account details page
     @GetMapping({"/accounts/{id}/transactions", "/api/accounts/{id}/transactions"})
-    public ResponseEntity<?> getAccountTransactions(@PathVariable Long id) {
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                .getAuthentication().getPrincipal();
-
+    public ResponseEntity<?> getAccountTransactions(@PathVariable Long id, CurrentUser currentUser) {
         // Verify account exists and belongs to current user
-        Account account = accountRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Account", "id", id));
-        if (!account.getUser().getId().equals(userDetails.getId())) {
+        if (!entityLookupCache.isAccountOwnedBy(id, currentUser.getId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(new MessageResponse("You don't have permission to access this account"));
         }
 
-        // Get transactions for this account using the correct method
-        List<Transaction> transactions = transactionRepository.findByAccount(account);
-        return ResponseEntity.ok(transactions.stream()
-                .map(TransactionResponse::fromEntity)
-                .collect(Collectors.toList()));
+        // Single joined query instead of lazily loading user and account per row
+        return ResponseEntity.ok(transactionRepository.findResponsesByAccountId(id));
     }
 
     @GetMapping({"/accounts/{id}/category-summary", "/api/accounts/{id}/category-summary"})
-    public ResponseEntity<?> getAccountCategorySummary(@PathVariable Long id) {
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                .getAuthentication().getPrincipal();
-
+    public ResponseEntity<?> getAccountCategorySummary(@PathVariable Long id, CurrentUser currentUser) {
         // Verify account exists and belongs to current user
-        Account account = accountRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Account", "id", id));
-        if (!account.getUser().getId().equals(userDetails.getId())) {
+        if (!entityLookupCache.isAccountOwnedBy(id, currentUser.getId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(new MessageResponse("You don't have permission to access this account"));
         }
@@ -228,34 +272,18 @@ public class AccountController {
     }
 
     @GetMapping({"/accounts/{id}/transfers", "/api/accounts/{id}/transfers"})
-    public ResponseEntity<?> getAccountTransfers(@PathVariable Long id) {
+    public ResponseEntity<?> getAccountTransfers(@PathVariable Long id, CurrentUser currentUser) {
         try {
-            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                    .getAuthentication().getPrincipal();
-
             // Verify account exists and belongs to current user
-            Account account = accountRepository.findById(id)
-                    .orElseThrow(() -> new ResourceNotFoundException("Account", "id", id));
-            if (!account.getUser().getId().equals(userDetails.getId())) {
+            if (!entityLookupCache.isAccountOwnedBy(id, currentUser.getId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(new MessageResponse("You don't have permission to access this account"));
             }
 
-            List<Transfer> transfers = transferRepository.findAll().stream()
-                    .filter(transfer ->
-                            transfer.getSourceAccount().getId().equals(id) ||
-                                    transfer.getDestinationAccount().getId().equals(id))
-                    .sorted((t1, t2) -> t2.getDate().compareTo(t1.getDate())) // Sort by date, newest first
-                    .collect(Collectors.toList());
+            // Newest first, read through the per-account indexes with both accounts join-fetched
+            List<TransferResponse> transferResponses = transferService.accountTransfers(id, null, 0);
+            logger.debug("Found {} transfers for account {}", transferResponses.size(), id);
 
-            logger.debug("Found {} transfers for account {}", transfers.size(), id);
-
-            // Convert to TransferResponse DTOs to avoid serialization issues
-            List<TransferResponse> transferResponses = transfers.stream()
-                    .map(TransferResponse::fromEntity)
-                    .collect(Collectors.toList());
-
-            // Return the transfer responses
             return ResponseEntity.ok(transferResponses);
         } catch (Exception e) {
             logger.error("Error fetching transfers for account {}: {}", id, e.getMessage());
@@ -264,16 +292,32 @@ public class AccountController {
         }
     }
 
+    // One page of an account's transfers, newest first, using an opaque keyset cursor
+    @GetMapping({"/accounts/{id}/transfers/page", "/api/accounts/{id}/transfers/page"})
+    public ResponseEntity<?> getAccountTransferPage(@PathVariable Long id,
+                                                    @RequestParam(name = "cursor", required = false) String cursor,
+                                                    @RequestParam(name = "size", required = false) Integer size,
+                                                    CurrentUser currentUser) {
+        if (!entityLookupCache.isAccountOwnedBy(id, currentUser.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new MessageResponse("You don't have permission to access this account"));
+        }
+
+        int pageSize = KeysetPage.size(size);
+        TransactionCursor after = KeysetPage.after(cursor);
+
+        // Fetch one extra row to know whether another page exists without a COUNT query
+        List<TransferResponse> rows = transferService.accountTransfers(id, after, pageSize + 1);
+        KeysetPage<TransferResponse> page = KeysetPage.of(rows, pageSize,
+                row -> new TransactionCursor(row.getDate(), row.getId()));
+
+        return ResponseEntity.ok(new TransferPageResponse(page.getRows(), page.getNextCursor(), page.hasMore()));
+    }
+
     @GetMapping({"/accounts/total-balance", "/api/accounts/total-balance"})
-    public ResponseEntity<?> getTotalBalance() {
+    public ResponseEntity<?> getTotalBalance(CurrentUser currentUser) {
         try {
-            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                    .getAuthentication().getPrincipal();
-            User user = userRepository.findById(userDetails.getId())
-                    .orElseThrow(() -> new ResourceNotFoundException("User", "id", userDetails.getId()));
-            BigDecimal totalBalance = accountRepository.findByUserId(userDetails.getId()).stream()
-                    .map(Account::getBalance)
-                    .reduce(BigDecimal.ZERO, (subtotal, element) -> subtotal.add(element));
+            BigDecimal totalBalance = accountRepository.sumBalanceByUserId(currentUser.getId());
             Map<String, Object> response = new HashMap<>();
             response.put("totalBalance", totalBalance);
             return ResponseEntity.ok(response);
@@ -284,83 +328,34 @@ public class AccountController {
         }
     }
 
+    // Accounts by type, savings with accrued interest and outstanding loan principal in one query
+    @GetMapping({"/accounts/net-worth", "/api/accounts/net-worth"})
+    public ResponseEntity<?> getNetWorth(CurrentUser currentUser) {
+        try {
+            return ResponseEntity.ok(accountRepository.netWorth(currentUser.getId(), LocalDate.now()));
+        } catch (Exception e) {
+            logger.error("Error fetching net worth", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new MessageResponse("Error fetching net worth: " + e.getMessage()));
+        }
+    }
+
     @PostMapping({"/accounts/transfer", "/api/accounts/transfer"})
-    public ResponseEntity<?> transferBetweenAccounts(@Valid @RequestBody TransferRequest request) {
+    public ResponseEntity<?> transferBetweenAccounts(@Valid @RequestBody TransferRequest request,
+                                                     @RequestHeader(value = IdempotencyInterceptor.HEADER, required = false)
+                                                     String idempotencyKey,
+                                                     CurrentUser currentUser) {
         logger.info("Received transfer request: {}", request);
         try {
-            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                    .getAuthentication().getPrincipal();
-
-            // Find source account
-            Account fromAccount = accountRepository.findById(request.getFromAccountId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Source Account", "id", request.getFromAccountId()));
-            logger.debug("Source account found: {}", fromAccount.getName());
-
-            // Find destination account
-            Account toAccount = accountRepository.findById(request.getToAccountId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Destination Account", "id", request.getToAccountId()));
-
-            // Check permissions and validate amounts
-            if (!fromAccount.getUser().getId().equals(userDetails.getId()) ||
-                    !toAccount.getUser().getId().equals(userDetails.getId())) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(new MessageResponse("You don't have permission to access these accounts"));
-            }
-
-            if (request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body(new MessageResponse("Transfer amount must be greater than zero"));
-            }
-
-            if (fromAccount.getBalance().compareTo(request.getAmount()) < 0) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body(new MessageResponse("Insufficient funds in source account"));
-            }
-
-            // Perform the transfer - update account balances
-            fromAccount.setBalance(fromAccount.getBalance().subtract(request.getAmount()));
-            toAccount.setBalance(toAccount.getBalance().add(request.getAmount()));
-
-            // Save account changes
-            accountRepository.save(fromAccount);
-            accountRepository.save(toAccount);
-
-            // Create and save transfer record
-            Transfer transfer = new Transfer();
-            transfer.setSourceAccount(fromAccount);
-            transfer.setDestinationAccount(toAccount);
-            transfer.setAmount(request.getAmount());
-            transfer.setDescription(request.getDescription());
-            transfer.setDate(LocalDateTime.now());
-            transfer.setUser(fromAccount.getUser());
-
-            transferRepository.save(transfer);
-
-            // Create transaction records using only INCOME and EXPENSE types
-            Transaction outgoingTransaction = new Transaction();
-            outgoingTransaction.setAmount(request.getAmount());
-            outgoingTransaction.setType(Transaction.TransactionType.EXPENSE);
-            outgoingTransaction.setDescription(request.getDescription() + " (Transfer to " + toAccount.getName() + ")");
-            outgoingTransaction.setAccount(fromAccount);
-            outgoingTransaction.setCategory(Transaction.Category.TRANSFER);
-            outgoingTransaction.setDate(LocalDateTime.now());
-            outgoingTransaction.setUser(fromAccount.getUser());
-            outgoingTransaction.setNotes("");
-
-            Transaction incomingTransaction = new Transaction();
-            incomingTransaction.setAmount(request.getAmount());
-            incomingTransaction.setType(Transaction.TransactionType.INCOME);
-            incomingTransaction.setDescription(request.getDescription() + " (Transfer from " + fromAccount.getName() + ")");
-            incomingTransaction.setAccount(toAccount);
-            incomingTransaction.setCategory(Transaction.Category.TRANSFER);
-            incomingTransaction.setDate(LocalDateTime.now());
-            incomingTransaction.setUser(toAccount.getUser());
-            incomingTransaction.setNotes("");
-
-            transactionRepository.save(outgoingTransaction);
-            transactionRepository.save(incomingTransaction);
+            transferService.transfer(request, currentUser.getId(), idempotencyKey);
 
             return ResponseEntity.ok(new MessageResponse("Transfer completed successfully"));
+        } catch (ForbiddenException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new MessageResponse(e.getMessage()));
+        } catch (BadRequestException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse(e.getMessage()));
         } catch (Exception e) {
             logger.error("Error processing transfer", e);
             String errorMessage = e.getMessage();
@@ -375,10 +370,6 @@ public class AccountController {
 
     @GetMapping({"/transactions/categories", "/api/transactions/categories"})
     public ResponseEntity<?> getTransactionCategories() {
-        Transaction.Category[] categories = Transaction.Category.values();
-        for (Transaction.Category category : categories) {
-            logger.info("Available category: " + category.name());
-        }
-        return ResponseEntity.ok(categories);
+        return ResponseEntity.ok(Transaction.Category.values());
     }
 }
@@ -10,6 +10,8 @@ import org.example.finance_management_system.dto.response.MessageResponse;
 import org.example.finance_management_system.model.User;
 import org.example.finance_management_system.repository.UserRepository;
 import org.example.finance_management_system.security.jwt.JwtUtils;
+import org.example.finance_management_system.security.services.PasswordHashingService;
+import org.example.finance_management_system.security.services.TokenVersionService;
 import org.example.finance_management_system.security.services.UserDetailsImpl;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
@@ -24,6 +26,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @CrossOrigin(origins = "http://localhost:3000", maxAge = 3600)
 @RestController
@@ -43,11 +46,23 @@ public class AuthController {
     @Autowired
     JwtUtils jwtUtils;
 
+    @Autowired
+    TokenVersionService tokenVersionService;
+
+    @Autowired
+    PasswordHashingService passwordHashingService;
+
     // Support both paths: /auth/signin and /api/auth/signin
     @PostMapping({"/auth/signin", "/api/auth/signin"})
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
         logger.info("Login attempt for user: {}", loginRequest.getUsername());
 
+        // BCrypt verification runs on the bounded hashing pool, not on a servlet thread.
+        // The security context is not set: sessions are stateless and the pool thread is reused.
+        return passwordHashingService.submit(() -> authenticate(loginRequest));
+    }
+
+    private ResponseEntity<?> authenticate(LoginRequest loginRequest) {
         try {
             // Authenticate user
             Authentication authentication = authenticationManager.authenticate(
@@ -57,9 +72,6 @@ public class AuthController {
                     )
             );
 
-            // Set authentication in security context
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-
             // Generate JWT token
             String jwt = jwtUtils.generateJwtToken(authentication);
 
@@ -86,7 +98,12 @@ public class AuthController {
 
     // Support both paths: /auth/signup and /api/auth/signup
     @PostMapping({"/auth/signup", "/api/auth/signup"})
-    public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
+    public CompletableFuture<ResponseEntity<?>> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
+        // Hashing the new password runs on the bounded hashing pool, not on a servlet thread
+        return passwordHashingService.submit(() -> register(signUpRequest));
+    }
+
+    private ResponseEntity<?> register(SignupRequest signUpRequest) {
         // Check username availability
         if (userRepository.existsByUsername(signUpRequest.getUsername())) {
             return ResponseEntity.badRequest()
@@ -129,9 +146,11 @@ public class AuthController {
                         .body(new MessageResponse("Error: Current password is incorrect"));
             }
 
-            // Update the password
+            // Update the password and revoke tokens issued with the old one
             user.setPassword(encoder.encode(request.getNewPassword()));
+            user.setTokenVersion(user.getTokenVersion() + 1);
             userRepository.save(user);
+            tokenVersionService.evict(user.getId());
 
             return ResponseEntity.ok(new MessageResponse("Password changed successfully"));
         } catch (Exception e) {
@@ -155,9 +174,11 @@ public class AuthController {
 
             User user = userOptional.get();
 
-            // Update the password
+            // Update the password and revoke tokens issued with the old one
             user.setPassword(encoder.encode(request.getNewPassword()));
+            user.setTokenVersion(user.getTokenVersion() + 1);
             userRepository.save(user);
+            tokenVersionService.evict(user.getId());
 
             // Log the password reset
             logger.info("Password reset successful for user with email: {}", request.getEmail());
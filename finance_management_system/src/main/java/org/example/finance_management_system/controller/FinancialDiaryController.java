@@ -8,15 +8,13 @@ import org.example.finance_management_system.exception.ResourceNotFoundException
 import org.example.finance_management_system.model.FinancialDiaryEntry;
 import org.example.finance_management_system.model.User;
 import org.example.finance_management_system.repository.FinancialDiaryRepository;
-import org.example.finance_management_system.repository.UserRepository;
-import org.example.finance_management_system.security.services.UserDetailsImpl;
+import org.example.finance_management_system.security.CurrentUser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
@@ -34,8 +32,6 @@ public class FinancialDiaryController {
     @Autowired
     private FinancialDiaryRepository financialDiaryRepository;
 
-    @Autowired
-    private UserRepository userRepository;
 
     @GetMapping({"/diary", "/api/diary"})
     public ResponseEntity<?> getAllDiaryEntries(
@@ -43,32 +39,31 @@ public class FinancialDiaryController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(required = false) String search,
             @RequestParam(required = false) String tag,
-            @RequestParam(required = false) String goal) {
+            @RequestParam(required = false) String goal,
+            CurrentUser currentUser) {
 
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                .getAuthentication().getPrincipal();
 
         List<FinancialDiaryEntry> entries;
 
         if (startDate != null && endDate != null) {
             // Filter by date range
             entries = financialDiaryRepository.findByUserIdAndEntryDateBetweenOrderByEntryDateDesc(
-                    userDetails.getId(), startDate, endDate);
+                    currentUser.getId(), startDate, endDate);
         } else if (search != null && !search.trim().isEmpty()) {
             // Search in title and content
             entries = financialDiaryRepository.findByUserIdAndTitleContainingOrContentContainingOrderByEntryDateDesc(
-                    userDetails.getId(), search, search);
+                    currentUser.getId(), search, search);
         } else if (tag != null && !tag.trim().isEmpty()) {
             // Filter by tag
             entries = financialDiaryRepository.findByUserIdAndTagsContainingOrderByEntryDateDesc(
-                    userDetails.getId(), tag);
+                    currentUser.getId(), tag);
         } else if (goal != null && !goal.trim().isEmpty()) {
             // Filter by financial goal
             entries = financialDiaryRepository.findByUserIdAndFinancialGoalContainingOrderByEntryDateDesc(
-                    userDetails.getId(), goal);
+                    currentUser.getId(), goal);
         } else {
             // Get all entries
-            entries = financialDiaryRepository.findByUserIdOrderByEntryDateDesc(userDetails.getId());
+            entries = financialDiaryRepository.findByUserIdOrderByEntryDateDesc(currentUser.getId());
         }
 
         List<FinancialDiaryResponse> response = entries.stream()
@@ -79,15 +74,12 @@ public class FinancialDiaryController {
     }
 
     @GetMapping({"/diary/{id}", "/api/diary/{id}"})
-    public ResponseEntity<?> getDiaryEntryById(@PathVariable Long id) {
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                .getAuthentication().getPrincipal();
-
+    public ResponseEntity<?> getDiaryEntryById(@PathVariable Long id, CurrentUser currentUser) {
         FinancialDiaryEntry entry = financialDiaryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Diary Entry", "id", id));
 
         // Check if entry belongs to the authenticated user
-        if (!entry.getUser().getId().equals(userDetails.getId())) {
+        if (!entry.getUser().getId().equals(currentUser.getId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(new MessageResponse("You don't have permission to view this diary entry"));
         }
@@ -97,31 +89,26 @@ public class FinancialDiaryController {
 
     @GetMapping({"/diary/date/{date}", "/api/diary/date/{date}"})
     public ResponseEntity<?> getDiaryEntryByDate(
-            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            CurrentUser currentUser) {
 
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                .getAuthentication().getPrincipal();
 
-        FinancialDiaryEntry entry = financialDiaryRepository.findByUserIdAndEntryDate(userDetails.getId(), date)
+        FinancialDiaryEntry entry = financialDiaryRepository.findByUserIdAndEntryDate(currentUser.getId(), date)
                 .orElseThrow(() -> new ResourceNotFoundException("Diary Entry", "date", date));
 
         return ResponseEntity.ok(FinancialDiaryResponse.fromEntity(entry));
     }
 
     @PostMapping({"/diary", "/api/diary"})
-    public ResponseEntity<?> createDiaryEntry(@Valid @RequestBody FinancialDiaryRequest request) {
+    public ResponseEntity<?> createDiaryEntry(@Valid @RequestBody FinancialDiaryRequest request, CurrentUser currentUser) {
         try {
-            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                    .getAuthentication().getPrincipal();
-
             // Check if entry already exists for this date
-            if (financialDiaryRepository.existsByUserIdAndEntryDate(userDetails.getId(), request.getEntryDate())) {
+            if (financialDiaryRepository.existsByUserIdAndEntryDate(currentUser.getId(), request.getEntryDate())) {
                 throw new BadRequestException("A diary entry already exists for this date");
             }
 
             // Get user
-            User user = userRepository.findById(userDetails.getId())
-                    .orElseThrow(() -> new ResourceNotFoundException("User", "id", userDetails.getId()));
+            User user = currentUser.reference();
 
             // Create new diary entry
             FinancialDiaryEntry entry = new FinancialDiaryEntry();
@@ -153,24 +140,22 @@ public class FinancialDiaryController {
     @PutMapping({"/diary/{id}", "/api/diary/{id}"})
     public ResponseEntity<?> updateDiaryEntry(
             @PathVariable Long id,
-            @Valid @RequestBody FinancialDiaryRequest request) {
+            @Valid @RequestBody FinancialDiaryRequest request,
+            CurrentUser currentUser) {
 
         try {
-            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                    .getAuthentication().getPrincipal();
-
             FinancialDiaryEntry entry = financialDiaryRepository.findById(id)
                     .orElseThrow(() -> new ResourceNotFoundException("Diary Entry", "id", id));
 
             // Check if entry belongs to the authenticated user
-            if (!entry.getUser().getId().equals(userDetails.getId())) {
+            if (!entry.getUser().getId().equals(currentUser.getId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(new MessageResponse("You don't have permission to update this diary entry"));
             }
 
             // Check if new date conflicts with an existing entry (only if date is changed)
             if (!entry.getEntryDate().equals(request.getEntryDate()) &&
-                    financialDiaryRepository.existsByUserIdAndEntryDate(userDetails.getId(), request.getEntryDate())) {
+                    financialDiaryRepository.existsByUserIdAndEntryDate(currentUser.getId(), request.getEntryDate())) {
                 throw new BadRequestException("A diary entry already exists for the new date");
             }
 
@@ -199,16 +184,13 @@ public class FinancialDiaryController {
     }
 
     @DeleteMapping({"/diary/{id}", "/api/diary/{id}"})
-    public ResponseEntity<?> deleteDiaryEntry(@PathVariable Long id) {
+    public ResponseEntity<?> deleteDiaryEntry(@PathVariable Long id, CurrentUser currentUser) {
         try {
-            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                    .getAuthentication().getPrincipal();
-
             FinancialDiaryEntry entry = financialDiaryRepository.findById(id)
                     .orElseThrow(() -> new ResourceNotFoundException("Diary Entry", "id", id));
 
             // Check if entry belongs to the authenticated user
-            if (!entry.getUser().getId().equals(userDetails.getId())) {
+            if (!entry.getUser().getId().equals(currentUser.getId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(new MessageResponse("You don't have permission to delete this diary entry"));
             }
@@ -226,12 +208,9 @@ public class FinancialDiaryController {
     }
 
     @GetMapping({"/diary/stats", "/api/diary/stats"})
-    public ResponseEntity<?> getDiaryStats() {
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                .getAuthentication().getPrincipal();
-
+    public ResponseEntity<?> getDiaryStats(CurrentUser currentUser) {
         // Get all entries for the user
-        List<FinancialDiaryEntry> entries = financialDiaryRepository.findByUserIdOrderByEntryDateDesc(userDetails.getId());
+        List<FinancialDiaryEntry> entries = financialDiaryRepository.findByUserIdOrderByEntryDateDesc(currentUser.getId());
 
         // Calculate statistics
         int totalEntries = entries.size();
@@ -8,15 +8,13 @@ import org.example.finance_management_system.exception.ResourceNotFoundException
 import org.example.finance_management_system.model.JournalEntry;
 import org.example.finance_management_system.model.User;
 import org.example.finance_management_system.repository.JournalEntryRepository;
-import org.example.finance_management_system.repository.UserRepository;
-import org.example.finance_management_system.security.services.UserDetailsImpl;
+import org.example.finance_management_system.security.CurrentUser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
@@ -34,8 +32,6 @@ public class JournalEntryController {
     @Autowired
     private JournalEntryRepository journalEntryRepository;
 
-    @Autowired
-    private UserRepository userRepository;
 
     @GetMapping({"/journal", "/api/journal"})
     public ResponseEntity<?> getAllJournalEntries(
@@ -43,32 +39,31 @@ public class JournalEntryController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(required = false) String search,
             @RequestParam(required = false) String tag,
-            @RequestParam(required = false) String mood) {
+            @RequestParam(required = false) String mood,
+            CurrentUser currentUser) {
 
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                .getAuthentication().getPrincipal();
 
         List<JournalEntry> entries;
 
         if (startDate != null && endDate != null) {
             // Filter by date range
             entries = journalEntryRepository.findByUserIdAndEntryDateBetweenOrderByEntryDateDesc(
-                    userDetails.getId(), startDate, endDate);
+                    currentUser.getId(), startDate, endDate);
         } else if (search != null && !search.trim().isEmpty()) {
             // Search in title and content
             entries = journalEntryRepository.findByUserIdAndTitleContainingOrContentContainingOrderByEntryDateDesc(
-                    userDetails.getId(), search, search);
+                    currentUser.getId(), search, search);
         } else if (tag != null && !tag.trim().isEmpty()) {
             // Filter by tag
             entries = journalEntryRepository.findByUserIdAndTagsContainingOrderByEntryDateDesc(
-                    userDetails.getId(), tag);
+                    currentUser.getId(), tag);
         } else if (mood != null && !mood.trim().isEmpty()) {
             // Filter by mood
             entries = journalEntryRepository.findByUserIdAndMoodOrderByEntryDateDesc(
-                    userDetails.getId(), mood);
+                    currentUser.getId(), mood);
         } else {
             // Get all entries
-            entries = journalEntryRepository.findByUserIdOrderByEntryDateDesc(userDetails.getId());
+            entries = journalEntryRepository.findByUserIdOrderByEntryDateDesc(currentUser.getId());
         }
 
         List<JournalEntryResponse> response = entries.stream()
@@ -79,15 +74,12 @@ public class JournalEntryController {
     }
 
     @GetMapping({"/journal/{id}", "/api/journal/{id}"})
-    public ResponseEntity<?> getJournalEntryById(@PathVariable Long id) {
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                .getAuthentication().getPrincipal();
-
+    public ResponseEntity<?> getJournalEntryById(@PathVariable Long id, CurrentUser currentUser) {
         JournalEntry entry = journalEntryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Journal Entry", "id", id));
 
         // Check if entry belongs to the authenticated user
-        if (!entry.getUser().getId().equals(userDetails.getId())) {
+        if (!entry.getUser().getId().equals(currentUser.getId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(new MessageResponse("You don't have permission to view this journal entry"));
         }
@@ -97,31 +89,26 @@ public class JournalEntryController {
 
     @GetMapping({"/journal/date/{date}", "/api/journal/date/{date}"})
     public ResponseEntity<?> getJournalEntryByDate(
-            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            CurrentUser currentUser) {
 
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                .getAuthentication().getPrincipal();
 
-        JournalEntry entry = journalEntryRepository.findByUserIdAndEntryDate(userDetails.getId(), date)
+        JournalEntry entry = journalEntryRepository.findByUserIdAndEntryDate(currentUser.getId(), date)
                 .orElseThrow(() -> new ResourceNotFoundException("Journal Entry", "date", date));
 
         return ResponseEntity.ok(JournalEntryResponse.fromEntity(entry));
     }
 
     @PostMapping({"/journal", "/api/journal"})
-    public ResponseEntity<?> createJournalEntry(@Valid @RequestBody JournalEntryRequest request) {
+    public ResponseEntity<?> createJournalEntry(@Valid @RequestBody JournalEntryRequest request, CurrentUser currentUser) {
         try {
-            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                    .getAuthentication().getPrincipal();
-
             // Check if entry already exists for this date
-            if (journalEntryRepository.existsByUserIdAndEntryDate(userDetails.getId(), request.getEntryDate())) {
+            if (journalEntryRepository.existsByUserIdAndEntryDate(currentUser.getId(), request.getEntryDate())) {
                 throw new BadRequestException("A journal entry already exists for this date");
             }
 
             // Get user
-            User user = userRepository.findById(userDetails.getId())
-                    .orElseThrow(() -> new ResourceNotFoundException("User", "id", userDetails.getId()));
+            User user = currentUser.reference();
 
             // Create new journal entry
             JournalEntry entry = new JournalEntry();
@@ -151,24 +138,22 @@ public class JournalEntryController {
     @PutMapping({"/journal/{id}", "/api/journal/{id}"})
     public ResponseEntity<?> updateJournalEntry(
             @PathVariable Long id,
-            @Valid @RequestBody JournalEntryRequest request) {
+            @Valid @RequestBody JournalEntryRequest request,
+            CurrentUser currentUser) {
 
         try {
-            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                    .getAuthentication().getPrincipal();
-
             JournalEntry entry = journalEntryRepository.findById(id)
                     .orElseThrow(() -> new ResourceNotFoundException("Journal Entry", "id", id));
 
             // Check if entry belongs to the authenticated user
-            if (!entry.getUser().getId().equals(userDetails.getId())) {
+            if (!entry.getUser().getId().equals(currentUser.getId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(new MessageResponse("You don't have permission to update this journal entry"));
             }
 
             // Check if new date conflicts with an existing entry (only if date is changed)
             if (!entry.getEntryDate().equals(request.getEntryDate()) &&
-                    journalEntryRepository.existsByUserIdAndEntryDate(userDetails.getId(), request.getEntryDate())) {
+                    journalEntryRepository.existsByUserIdAndEntryDate(currentUser.getId(), request.getEntryDate())) {
                 throw new BadRequestException("A journal entry already exists for the new date");
             }
 
@@ -195,16 +180,13 @@ public class JournalEntryController {
     }
 
     @DeleteMapping({"/journal/{id}", "/api/journal/{id}"})
-    public ResponseEntity<?> deleteJournalEntry(@PathVariable Long id) {
+    public ResponseEntity<?> deleteJournalEntry(@PathVariable Long id, CurrentUser currentUser) {
         try {
-            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                    .getAuthentication().getPrincipal();
-
             JournalEntry entry = journalEntryRepository.findById(id)
                     .orElseThrow(() -> new ResourceNotFoundException("Journal Entry", "id", id));
 
             // Check if entry belongs to the authenticated user
-            if (!entry.getUser().getId().equals(userDetails.getId())) {
+            if (!entry.getUser().getId().equals(currentUser.getId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(new MessageResponse("You don't have permission to delete this journal entry"));
             }
@@ -222,12 +204,9 @@ public class JournalEntryController {
     }
 
     @GetMapping({"/journal/stats", "/api/journal/stats"})
-    public ResponseEntity<?> getJournalStats() {
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                .getAuthentication().getPrincipal();
-
+    public ResponseEntity<?> getJournalStats(CurrentUser currentUser) {
         // Get all entries for the user
-        List<JournalEntry> entries = journalEntryRepository.findByUserIdOrderByEntryDateDesc(userDetails.getId());
+        List<JournalEntry> entries = journalEntryRepository.findByUserIdOrderByEntryDateDesc(currentUser.getId());
 
         // Calculate statistics
         int totalEntries = entries.size();
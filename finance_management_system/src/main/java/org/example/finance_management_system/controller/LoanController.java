@@ -7,14 +7,13 @@ import org.example.finance_management_system.exception.BadRequestException;
 import org.example.finance_management_system.exception.ResourceNotFoundException;
 import org.example.finance_management_system.model.LoanAccount;
 import org.example.finance_management_system.repository.LoanAccountRepository;
-import org.example.finance_management_system.security.services.UserDetailsImpl;
+import org.example.finance_management_system.security.CurrentUser;
 import org.example.finance_management_system.service.LoanService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
@@ -35,11 +34,8 @@ public class LoanController {
     private LoanService loanService;
 
     @GetMapping({"/loans", "/api/loans"})
-    public ResponseEntity<?> getAllLoans() {
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                .getAuthentication().getPrincipal();
-
-        List<LoanAccount> loanAccounts = loanAccountRepository.findByUserId(userDetails.getId());
+    public ResponseEntity<?> getAllLoans(CurrentUser currentUser) {
+        List<LoanAccount> loanAccounts = loanAccountRepository.findByUserId(currentUser.getId());
 
         List<LoanAccountResponse> response = loanAccounts.stream()
                 .map(LoanAccountResponse::fromEntity)
@@ -49,15 +45,12 @@ public class LoanController {
     }
 
     @GetMapping({"/loans/{id}", "/api/loans/{id}"})
-    public ResponseEntity<?> getLoanById(@PathVariable Long id) {
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                .getAuthentication().getPrincipal();
-
+    public ResponseEntity<?> getLoanById(@PathVariable Long id, CurrentUser currentUser) {
         LoanAccount loanAccount = loanAccountRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Loan Account", "id", id));
 
         // Check if loan account belongs to the authenticated user
-        if (!loanAccount.getUser().getId().equals(userDetails.getId())) {
+        if (!loanAccount.getUser().getId().equals(currentUser.getId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(new MessageResponse("You don't have permission to view this loan account"));
         }
@@ -66,12 +59,9 @@ public class LoanController {
     }
 
     @PostMapping({"/loans", "/api/loans"})
-    public ResponseEntity<?> createLoan(@Valid @RequestBody LoanAccountRequest request) {
+    public ResponseEntity<?> createLoan(@Valid @RequestBody LoanAccountRequest request, CurrentUser currentUser) {
         try {
-            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                    .getAuthentication().getPrincipal();
-
-            LoanAccount loanAccount = loanService.createLoan(request, userDetails.getId());
+            LoanAccount loanAccount = loanService.createLoan(request, currentUser.getId());
 
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(LoanAccountResponse.fromEntity(loanAccount));
@@ -86,12 +76,9 @@ public class LoanController {
     }
 
     @PostMapping({"/loans/{id}/pay/{installmentNumber}", "/api/loans/{id}/pay/{installmentNumber}"})
-    public ResponseEntity<?> makePayment(@PathVariable Long id, @PathVariable Integer installmentNumber) {
+    public ResponseEntity<?> makePayment(@PathVariable Long id, @PathVariable Integer installmentNumber, CurrentUser currentUser) {
         try {
-            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                    .getAuthentication().getPrincipal();
-
-            LoanAccount loanAccount = loanService.makePayment(id, installmentNumber, userDetails.getId());
+            LoanAccount loanAccount = loanService.makePayment(id, installmentNumber, currentUser.getId());
 
             return ResponseEntity.ok(LoanAccountResponse.fromEntity(loanAccount));
         } catch (BadRequestException e) {
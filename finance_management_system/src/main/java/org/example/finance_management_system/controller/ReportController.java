@@ -4,26 +4,26 @@ import jakarta.validation.Valid;
 import org.example.finance_management_system.dto.request.ReportRequest;
 import org.example.finance_management_system.dto.response.MessageResponse;
 import org.example.finance_management_system.dto.response.ReportResponse;
+import org.example.finance_management_system.dto.response.TransactionAggregateResponse;
 import org.example.finance_management_system.exception.ResourceNotFoundException;
 import org.example.finance_management_system.model.Report;
 import org.example.finance_management_system.model.Transaction;
 import org.example.finance_management_system.model.User;
 import org.example.finance_management_system.repository.ReportRepository;
 import org.example.finance_management_system.repository.TransactionRepository;
-import org.example.finance_management_system.repository.UserRepository;
-import org.example.finance_management_system.security.services.UserDetailsImpl;
+import org.example.finance_management_system.security.CurrentUser;
+import org.example.finance_management_system.service.ReportService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.time.temporal.TemporalAdjusters;
 import java.util.HashMap;
 import java.util.List;
@@ -44,30 +44,38 @@ public class ReportController {
     private TransactionRepository transactionRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private ReportService reportService;
 
     // Add logger declaration
     private static final Logger logger = LoggerFactory.getLogger(ReportController.class);
 
     @GetMapping({"/reports", "/api/reports"})
-    public ResponseEntity<?> getAllReports() {
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        List<Report> reports = reportRepository.findByUserId(userDetails.getId());
+    public ResponseEntity<?> getAllReports(CurrentUser currentUser) {
+        List<Report> reports = reportRepository.findByUserId(currentUser.getId());
         List<ReportResponse> reportResponses = reports.stream()
                 .map(ReportResponse::fromEntity)
                 .collect(Collectors.toList());
         return ResponseEntity.ok(reportResponses);
     }
 
-    @GetMapping({"/reports/{id}", "/api/reports/{id}"})
-    public ResponseEntity<?> getReportById(@PathVariable Long id) {
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+    // Income and expense sums grouped by type, category and an optional day/week/month bucket
+    @GetMapping({"/reports/aggregate", "/api/reports/aggregate"})
+    public ResponseEntity<?> getAggregate(
+            @RequestParam("fromDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam("toDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(name = "bucket", defaultValue = "none") String bucket,
+            CurrentUser currentUser) {
+        return ResponseEntity.ok(reportService.aggregate(
+                currentUser.getId(), fromDate, toDate, ReportService.Bucket.parse(bucket)));
+    }
 
+    @GetMapping({"/reports/{id}", "/api/reports/{id}"})
+    public ResponseEntity<?> getReportById(@PathVariable Long id, CurrentUser currentUser) {
         Report report = reportRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Report", "id", id));
 
         // Check if report belongs to authenticated user
-        if(!report.getUser().getId().equals(userDetails.getId())) {
+        if(!report.getUser().getId().equals(currentUser.getId())) {
             return ResponseEntity.status(403).body(new MessageResponse("You don't have permission to access this report"));
         }
 
@@ -75,22 +83,15 @@ public class ReportController {
     }
 
     @PostMapping({"/reports", "/api/reports"})
-    public ResponseEntity<?> createReport(@Valid @RequestBody ReportRequest request) {
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                .getAuthentication().getPrincipal();
-
-        User user = userRepository.findById(userDetails.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userDetails.getId()));
+    public ResponseEntity<?> createReport(@Valid @RequestBody ReportRequest request, CurrentUser currentUser) {
+        User user = currentUser.reference();
 
         // Calculate totals based on transactions within date range
-        LocalDateTime startDateTime = request.getFromDate().atStartOfDay();
-        LocalDateTime endDateTime = request.getToDate().atTime(LocalTime.MAX);
+        TransactionAggregateResponse totals = reportService.aggregate(
+                currentUser.getId(), request.getFromDate(), request.getToDate(), ReportService.Bucket.NONE);
 
-        List<Transaction> transactions = transactionRepository.findByUserIdAndDateBetween(
-                userDetails.getId(), startDateTime, endDateTime);
-
-        BigDecimal income = calculateTotalIncome(transactions);
-        BigDecimal expense = calculateTotalExpense(transactions);
+        BigDecimal income = totals.getTotalIncome();
+        BigDecimal expense = totals.getTotalExpense();
 
         Report report = new Report();
         report.setTitle(request.getTitle());
@@ -107,33 +108,21 @@ public class ReportController {
     }
 
     @PutMapping({"/reports/{id}", "/api/reports/{id}"})
-    public ResponseEntity<?> updateReport(@PathVariable Long id, @Valid @RequestBody ReportRequest reportRequest) {
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-
+    public ResponseEntity<?> updateReport(@PathVariable Long id, @Valid @RequestBody ReportRequest reportRequest, CurrentUser currentUser) {
         Report report = reportRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Report", "id", id));
 
         // Check if report belongs to authenticated user
-        if(!report.getUser().getId().equals(userDetails.getId())) {
+        if(!report.getUser().getId().equals(currentUser.getId())) {
             return ResponseEntity.status(403).body(new MessageResponse("You don't have permission to update this report"));
         }
 
         // Recalculate totals based on new date range
-        LocalDateTime startDateTime = reportRequest.getFromDate().atStartOfDay();
-        LocalDateTime endDateTime = reportRequest.getToDate().atTime(LocalTime.MAX);
-
-        List<Transaction> transactions = transactionRepository.findByUserIdAndDateBetween(
-                userDetails.getId(), startDateTime, endDateTime);
-
-        BigDecimal totalIncome = transactions.stream()
-                .filter(t -> t.getType() == Transaction.TransactionType.INCOME)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        TransactionAggregateResponse totals = reportService.aggregate(
+                currentUser.getId(), reportRequest.getFromDate(), reportRequest.getToDate(), ReportService.Bucket.NONE);
 
-        BigDecimal totalExpense = transactions.stream()
-                .filter(t -> t.getType() == Transaction.TransactionType.EXPENSE)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalIncome = totals.getTotalIncome();
+        BigDecimal totalExpense = totals.getTotalExpense();
 
         report.setTitle(reportRequest.getTitle());
         report.setType(reportRequest.getType());
@@ -148,14 +137,12 @@ public class ReportController {
     }
 
     @DeleteMapping({"/reports/{id}", "/api/reports/{id}"})
-    public ResponseEntity<?> deleteReport(@PathVariable Long id) {
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-
+    public ResponseEntity<?> deleteReport(@PathVariable Long id, CurrentUser currentUser) {
         Report report = reportRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Report", "id", id));
 
         // Check if report belongs to authenticated user
-        if(!report.getUser().getId().equals(userDetails.getId())) {
+        if(!report.getUser().getId().equals(currentUser.getId())) {
             return ResponseEntity.status(403).body(new MessageResponse("You don't have permission to delete this report"));
         }
 
@@ -165,10 +152,8 @@ public class ReportController {
     }
 
     @GetMapping({"/reports/by-type/{type}", "/api/reports/by-type/{type}"})
-    public ResponseEntity<?> getReportsByType(@PathVariable Report.ReportType type) {
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-
-        List<Report> reports = reportRepository.findByUserIdAndType(userDetails.getId(), type);
+    public ResponseEntity<?> getReportsByType(@PathVariable Report.ReportType type, CurrentUser currentUser) {
+        List<Report> reports = reportRepository.findByUserIdAndType(currentUser.getId(), type);
         List<ReportResponse> reportResponses = reports.stream()
                 .map(ReportResponse::fromEntity)
                 .collect(Collectors.toList());
@@ -177,13 +162,9 @@ public class ReportController {
     }
 
     @GetMapping({"/reports/spending-comparison", "/api/reports/spending-comparison"})
-    public ResponseEntity<?> getSpendingComparison() {
+    public ResponseEntity<?> getSpendingComparison(CurrentUser currentUser) {
         try {
-            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                    .getAuthentication().getPrincipal();
-
-            User user = userRepository.findById(userDetails.getId())
-                    .orElseThrow(() -> new ResourceNotFoundException("User", "id", userDetails.getId()));
+            User user = currentUser.reference();
 
             // Get first day of current month
             LocalDate currentMonth = LocalDate.now().with(TemporalAdjusters.firstDayOfMonth());
@@ -233,20 +214,4 @@ public class ReportController {
                     .body(new MessageResponse("Error calculating spending comparison: " + e.getMessage()));
         }
     }
-
-    // Helper methods
-    private BigDecimal calculateTotalIncome(List<Transaction> transactions) {
-        return transactions.stream()
-                .filter(t -> t.getType() == Transaction.TransactionType.INCOME)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
-    private BigDecimal calculateTotalExpense(List<Transaction> transactions) {
-        return transactions.stream()
-                .filter(t -> t.getType() == Transaction.TransactionType.EXPENSE)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
 }
-
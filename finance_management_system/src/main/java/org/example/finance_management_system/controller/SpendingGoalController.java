@@ -10,14 +10,12 @@ import org.example.finance_management_system.model.Transaction;
 import org.example.finance_management_system.model.User;
 import org.example.finance_management_system.repository.SpendingGoalRepository;
 import org.example.finance_management_system.repository.TransactionRepository;
-import org.example.finance_management_system.repository.UserRepository;
-import org.example.finance_management_system.security.services.UserDetailsImpl;
+import org.example.finance_management_system.security.CurrentUser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
@@ -35,22 +33,15 @@ public class SpendingGoalController {
     @Autowired
     private SpendingGoalRepository spendingGoalRepository;
 
-    @Autowired
-    private UserRepository userRepository;
-
     @Autowired
     private TransactionRepository transactionRepository;
 
     private static final Logger logger = LoggerFactory.getLogger(SpendingGoalController.class);
 
     @GetMapping({"/spending-goals", "/api/spending-goals"})
-    public ResponseEntity<?> getAllSpendingGoals() {
+    public ResponseEntity<?> getAllSpendingGoals(CurrentUser currentUser) {
         try {
-            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                    .getAuthentication().getPrincipal();
-
-            User user = userRepository.findById(userDetails.getId())
-                    .orElseThrow(() -> new ResourceNotFoundException("User", "id", userDetails.getId()));
+            User user = currentUser.reference();
 
             List<SpendingGoal> goals = spendingGoalRepository.findByUserOrderByCreatedAtDesc(user);
 
@@ -70,13 +61,9 @@ public class SpendingGoalController {
     }
 
     @PostMapping({"/spending-goals", "/api/spending-goals"})
-    public ResponseEntity<?> createSpendingGoal(@Valid @RequestBody SpendingGoalRequest request) {
+    public ResponseEntity<?> createSpendingGoal(@Valid @RequestBody SpendingGoalRequest request, CurrentUser currentUser) {
         try {
-            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                    .getAuthentication().getPrincipal();
-
-            User user = userRepository.findById(userDetails.getId())
-                    .orElseThrow(() -> new ResourceNotFoundException("User", "id", userDetails.getId()));
+            User user = currentUser.reference();
 
             // Check if spending goal already exists for this user, category, and period
             if (spendingGoalRepository.existsByUserAndCategoryAndPeriod(user, request.getCategory(), request.getPeriod())) {
@@ -114,16 +101,13 @@ public class SpendingGoalController {
     }
 
     @DeleteMapping({"/spending-goals/{id}", "/api/spending-goals/{id}"})
-    public ResponseEntity<?> deleteSpendingGoal(@PathVariable Long id) {
+    public ResponseEntity<?> deleteSpendingGoal(@PathVariable Long id, CurrentUser currentUser) {
         try {
-            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                    .getAuthentication().getPrincipal();
-
             SpendingGoal goal = spendingGoalRepository.findById(id)
                     .orElseThrow(() -> new ResourceNotFoundException("Spending Goal", "id", id));
 
             // Check if goal belongs to current user
-            if (!goal.getUser().getId().equals(userDetails.getId())) {
+            if (!goal.getUser().getId().equals(currentUser.getId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(new MessageResponse("You don't have permission to delete this spending goal"));
             }
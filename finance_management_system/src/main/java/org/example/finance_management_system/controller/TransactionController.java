@@ -1,36 +1,46 @@
 package org.example.finance_management_system.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import org.example.finance_management_system.dto.request.KeysetPage;
+import org.example.finance_management_system.dto.request.TransactionCursor;
 import org.example.finance_management_system.dto.request.TransactionRequest;
+import org.example.finance_management_system.dto.response.ImportResultResponse;
 import org.example.finance_management_system.dto.response.MessageResponse;
+import org.example.finance_management_system.dto.response.TransactionHistoryPageResponse;
 import org.example.finance_management_system.dto.response.TransactionHistoryResponse;
+import org.example.finance_management_system.dto.response.TransactionPageResponse;
 import org.example.finance_management_system.dto.response.TransactionResponse;
+import org.example.finance_management_system.exception.ForbiddenException;
 import org.example.finance_management_system.exception.ResourceNotFoundException;
-import org.example.finance_management_system.model.Account;
 import org.example.finance_management_system.model.Transaction;
 import org.example.finance_management_system.model.TransactionHistory;
-import org.example.finance_management_system.model.User;
-import org.example.finance_management_system.repository.AccountRepository;
 import org.example.finance_management_system.repository.TransactionHistoryRepository;
 import org.example.finance_management_system.repository.TransactionRepository;
-import org.example.finance_management_system.repository.UserRepository;
-import org.example.finance_management_system.security.services.UserDetailsImpl;
+import org.example.finance_management_system.security.CurrentUser;
+import org.example.finance_management_system.service.TransactionExportService;
+import org.example.finance_management_system.service.TransactionHistoryService;
+import org.example.finance_management_system.service.TransactionImportService;
+import org.example.finance_management_system.service.TransactionService;
 
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -44,42 +54,136 @@ public class TransactionController {
     private TransactionRepository transactionRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private TransactionHistoryRepository transactionHistoryRepository;
 
     @Autowired
-    private AccountRepository accountRepository;
+    private TransactionExportService transactionExportService;
 
     @Autowired
-    private TransactionHistoryRepository transactionHistoryRepository;
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionImportService transactionImportService;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private TransactionHistoryService transactionHistoryService;
 
     private static final Logger logger = LoggerFactory.getLogger(TransactionController.class);
 
     // Get all transactions for current user
     @GetMapping({"/transactions", "/api/transactions"})
-    public ResponseEntity<?> getAllTransactions() {
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                .getAuthentication().getPrincipal();
-
-        List<Transaction> transactions = transactionRepository.findByUserId(userDetails.getId());
-        return ResponseEntity.ok(transactions.stream()
-                .map(TransactionResponse::fromEntity)
-                .collect(Collectors.toList()));
+    public ResponseEntity<?> getAllTransactions(CurrentUser currentUser) {
+        return ResponseEntity.ok(transactionRepository.findResponsesByUserId(currentUser.getId()));
+    }
+
+    // Get one page of transactions for current user, newest first, using an opaque keyset cursor
+    @GetMapping({"/transactions/page", "/api/transactions/page"})
+    public ResponseEntity<?> getTransactionPage(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false) Integer size,
+            @RequestParam(name = "type", required = false) Transaction.TransactionType type,
+            @RequestParam(name = "category", required = false) Transaction.Category category,
+            @RequestParam(name = "accountId", required = false) Long accountId,
+            CurrentUser currentUser) {
+        int pageSize = KeysetPage.size(size);
+        TransactionCursor after = KeysetPage.after(cursor);
+
+        // Fetch one extra row to know whether another page exists without a COUNT query
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<TransactionResponse> rows;
+        if (after == null) {
+            rows = transactionRepository.findFirstPageByUserId(
+                    currentUser.getId(), type, category, accountId, limit);
+        } else {
+            rows = transactionRepository.findPageByUserIdAfterCursor(
+                    currentUser.getId(), type, category, accountId, after.getDate(), after.getId(), limit);
+        }
+
+        KeysetPage<TransactionResponse> page = KeysetPage.of(rows, pageSize,
+                row -> new TransactionCursor(row.getDate(), row.getId()));
+        return ResponseEntity.ok(new TransactionPageResponse(page.getRows(), page.getNextCursor(), page.hasMore()));
+    }
+
+    // One page of the current user's transaction audit trail (deleted transactions by default),
+    // newest first, using an opaque keyset cursor
+    @GetMapping({"/transactions/audit", "/api/transactions/audit"})
+    public ResponseEntity<?> getTransactionAudit(
+            @RequestParam(name = "changeType", defaultValue = "DELETE") TransactionHistory.ChangeType changeType,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false) Integer size,
+            CurrentUser currentUser) {
+        int pageSize = KeysetPage.size(size);
+        TransactionCursor after = KeysetPage.after(cursor);
+
+        // Fetch one extra row to know whether another page exists without a COUNT query
+        List<TransactionHistory> rows = transactionHistoryService.auditPage(
+                currentUser.getId(), changeType, after, pageSize + 1);
+        KeysetPage<TransactionHistory> page = KeysetPage.of(rows, pageSize,
+                row -> new TransactionCursor(row.getChangedAt(), row.getId()));
+
+        List<TransactionHistoryResponse> items = page.getRows().stream()
+                .map(TransactionHistoryResponse::fromEntity)
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(new TransactionHistoryPageResponse(items, page.getNextCursor(), page.hasMore()));
+    }
+
+    // Stream all transactions of current user as CSV or NDJSON without loading them into memory
+    @GetMapping({"/transactions/export", "/api/transactions/export"})
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(name = "format", defaultValue = "csv") String format,
+            CurrentUser currentUser) {
+        TransactionExportService.ExportFormat exportFormat = TransactionExportService.ExportFormat.parse(format);
+
+        // Capture the principal here, the body is written on an async thread
+        Long userId = currentUser.getId();
+        StreamingResponseBody body = out -> transactionExportService.export(userId, exportFormat, out);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transactions." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    // Bulk import a bank statement (CSV, OFX or QIF); invalid rows are skipped and reported
+    @PostMapping(value = {"/transactions/import", "/api/transactions/import"},
+            consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importTransactions(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(name = "format", required = false) String format,
+            @RequestParam(name = "accountId", required = false) Long accountId,
+            CurrentUser currentUser) throws IOException {
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Uploaded file is empty"));
+        }
+
+        TransactionImportService.ImportFormat importFormat = format != null
+                ? TransactionImportService.ImportFormat.parse(format)
+                : TransactionImportService.ImportFormat.fromFilename(file.getOriginalFilename());
+
+        ImportResultResponse result;
+        try (InputStream in = file.getInputStream()) {
+            result = transactionImportService.importTransactions(in, importFormat, currentUser.getId(), accountId);
+        }
+
+        if (result.getFailedCount() == 0) {
+            return ResponseEntity.ok(result);
+        } else if (result.getImportedCount() > 0) {
+            return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT).body(result);
+        }
+        return ResponseEntity.badRequest().body(result);
     }
 
     // Get transaction by ID
     @GetMapping({"/transactions/{id}", "/api/transactions/{id}"})
-    public ResponseEntity<?> getTransactionById(@PathVariable Long id) {
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                .getAuthentication().getPrincipal();
-
+    public ResponseEntity<?> getTransactionById(@PathVariable Long id, CurrentUser currentUser) {
         Transaction transaction = transactionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Transaction", "id", id));
 
         // Check if transaction belongs to current user
-        if(!transaction.getUser().getId().equals(userDetails.getId())) {
+        if(!transaction.getUser().getId().equals(currentUser.getId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(new MessageResponse("You don't have permission to view this transaction"));
         }
@@ -87,54 +191,22 @@ public class TransactionController {
         return ResponseEntity.ok(TransactionResponse.fromEntity(transaction));
     }
 
-    // Update createTransaction method to handle account balance update
+    // Create a transaction and apply it to the account balance
     @PostMapping({"/transactions", "/api/transactions"})
-    public ResponseEntity<?> createTransaction(@Valid @RequestBody TransactionRequest request) {
+    public ResponseEntity<?> createTransaction(@Valid @RequestBody TransactionRequest request, CurrentUser currentUser) {
         try {
             // Log the incoming request
             logger.debug("Received transaction creation request: {}", request);
 
-            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                    .getAuthentication().getPrincipal();
-
-            logger.debug("User details: {}", userDetails.getUsername());
 
-            User user = userRepository.findById(userDetails.getId())
-                    .orElseThrow(() -> new ResourceNotFoundException("User", "id", userDetails.getId()));
+            logger.debug("User details: {}", currentUser.getUsername());
 
-            // Get the selected account
-            Account account = accountRepository.findById(request.getAccountId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Account", "id", request.getAccountId()));
-
-            // Verify account belongs to user
-            if (!account.getUser().getId().equals(userDetails.getId())) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(new MessageResponse("You don't have permission to use this account"));
-            }
-
-            Transaction transaction = new Transaction();
-            transaction.setDescription(request.getDescription());
-            transaction.setAmount(request.getAmount());
-            transaction.setType(request.getType());
-            transaction.setCategory(request.getCategory());
-            transaction.setDate(request.getDate() != null ? request.getDate() : LocalDateTime.now());
-            transaction.setUser(user);
-            transaction.setAccount(account);
-            transaction.setNotes(request.getNotes());
-
-            // Update account balance based on transaction type
-            BigDecimal currentBalance = account.getBalance();
-            if (transaction.getType() == Transaction.TransactionType.INCOME) {
-                account.setBalance(currentBalance.add(transaction.getAmount()));
-            } else if (transaction.getType() == Transaction.TransactionType.EXPENSE) {
-                account.setBalance(currentBalance.subtract(transaction.getAmount()));
-            }
-
-            // Save both the transaction and updated account
-            accountRepository.save(account);
-            transactionRepository.save(transaction);
+            Transaction transaction = transactionService.createTransaction(request, currentUser.getId());
 
             return ResponseEntity.ok(TransactionResponse.fromEntity(transaction));
+        } catch (ForbiddenException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new MessageResponse(e.getMessage()));
         } catch (Exception e) {
             logger.error("Error creating transaction", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -142,97 +214,22 @@ public class TransactionController {
         }
     }
 
-    // Update updateTransaction method to handle account balance update
+    // Update a transaction, moving its balance effect between accounts if needed
     @PutMapping({"/transactions/{id}", "/api/transactions/{id}"})
     public ResponseEntity<?> updateTransaction(
             @PathVariable Long id,
-            @Valid @RequestBody TransactionRequest request) {
+            @Valid @RequestBody TransactionRequest request,
+            CurrentUser currentUser) {
 
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                .getAuthentication().getPrincipal();
 
         try {
-            Transaction transaction = transactionRepository.findById(id)
-                    .orElseThrow(() -> new ResourceNotFoundException("Transaction", "id", id));
-
-            // Check if transaction belongs to current user
-            if(!transaction.getUser().getId().equals(userDetails.getId())) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(new MessageResponse("You don't have permission to update this transaction"));
-            }
-
-            // Save the transaction state before updating
-            String oldValueJson = objectMapper.writeValueAsString(
-                    TransactionResponse.fromEntity(transaction));
-
-            // Get original values before updating
-            BigDecimal originalAmount = transaction.getAmount();
-            Transaction.TransactionType originalType = transaction.getType();
-            Account originalAccount = transaction.getAccount();
-
-            // Get new account if it's different
-            Account newAccount = originalAccount;
-            if (!request.getAccountId().equals(originalAccount.getId())) {
-                newAccount = accountRepository.findById(request.getAccountId())
-                        .orElseThrow(() -> new ResourceNotFoundException("Account", "id", request.getAccountId()));
-
-                // Verify new account belongs to user
-                if (!newAccount.getUser().getId().equals(userDetails.getId())) {
-                    return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                            .body(new MessageResponse("You don't have permission to use this account"));
-                }
-            }
-
-            // Revert the effect of original transaction on the original account
-            if (originalType == Transaction.TransactionType.INCOME) {
-                originalAccount.setBalance(originalAccount.getBalance().subtract(originalAmount));
-            } else if (originalType == Transaction.TransactionType.EXPENSE) {
-                originalAccount.setBalance(originalAccount.getBalance().add(originalAmount));
-            }
-
-            // Save original account if it's different from new account
-            if (!originalAccount.getId().equals(newAccount.getId())) {
-                accountRepository.save(originalAccount);
-            }
-
-            // Update transaction with new values
-            transaction.setDescription(request.getDescription());
-            transaction.setAmount(request.getAmount());
-            transaction.setType(request.getType());
-            transaction.setCategory(request.getCategory());
-            transaction.setDate(request.getDate());
-            transaction.setAccount(newAccount);
-            transaction.setNotes(request.getNotes());
-
-            // Apply the effect of updated transaction on the new account
-            if (request.getType() == Transaction.TransactionType.INCOME) {
-                newAccount.setBalance(newAccount.getBalance().add(request.getAmount()));
-            } else if (request.getType() == Transaction.TransactionType.EXPENSE) {
-                newAccount.setBalance(newAccount.getBalance().subtract(request.getAmount()));
-            }
-
-            // Save both the account and transaction
-            accountRepository.save(newAccount);
-            transactionRepository.save(transaction);
-
-            // Capture the new state after updating
-            String newValueJson = objectMapper.writeValueAsString(
-                    TransactionResponse.fromEntity(transaction));
-
-            // Record the history if there were changes
-            if (!oldValueJson.equals(newValueJson)) {
-                TransactionHistory history = new TransactionHistory();
-                history.setTransactionId(transaction.getId());
-                history.setOldValue(oldValueJson);
-                history.setNewValue(newValueJson);
-                history.setChangedAt(LocalDateTime.now());
-                history.setChangedBy(userDetails.getUsername());
-                history.setChangeType(TransactionHistory.ChangeType.UPDATE.name());
-
-                transactionHistoryRepository.save(history);
-            }
+            Transaction transaction = transactionService.updateTransaction(
+                    id, request, currentUser.getId(), currentUser.getUsername());
 
             return ResponseEntity.ok(TransactionResponse.fromEntity(transaction));
+        } catch (ForbiddenException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new MessageResponse(e.getMessage()));
         } catch (Exception e) {
             logger.error("Error updating transaction", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -240,58 +237,16 @@ public class TransactionController {
         }
     }
 
-    // Update deleteTransaction method to handle account balance update
+    // Delete a transaction and revert its effect on the account balance
     @DeleteMapping({"/transactions/{id}", "/api/transactions/{id}"})
-    public ResponseEntity<?> deleteTransaction(@PathVariable Long id) {
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                .getAuthentication().getPrincipal();
-
+    public ResponseEntity<?> deleteTransaction(@PathVariable Long id, CurrentUser currentUser) {
         try {
-            Transaction transaction = transactionRepository.findById(id)
-                    .orElseThrow(() -> new ResourceNotFoundException("Transaction", "id", id));
-
-            // Check if transaction belongs to current user
-            if(!transaction.getUser().getId().equals(userDetails.getId())) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(new MessageResponse("You don't have permission to delete this transaction"));
-            }
-
-            // Capture the transaction data before deletion
-            String oldValueJson = objectMapper.writeValueAsString(
-                    TransactionResponse.fromEntity(transaction));
-
-            // Revert the effect of this transaction on the account balance
-            Account account = transaction.getAccount();
-            if (transaction.getType() == Transaction.TransactionType.INCOME) {
-                account.setBalance(account.getBalance().subtract(transaction.getAmount()));
-            } else if (transaction.getType() == Transaction.TransactionType.EXPENSE) {
-                account.setBalance(account.getBalance().add(transaction.getAmount()));
-            }
-
-            // Save the account with updated balance
-            accountRepository.save(account);
-
-            // Create a new transaction history record
-            TransactionHistory history = new TransactionHistory();
-            history.setOldValue(oldValueJson);
-            history.setNewValue(null);
-            history.setChangedAt(LocalDateTime.now());
-            history.setChangedBy(userDetails.getUsername());
-            history.setChangeType(TransactionHistory.ChangeType.DELETE.name());
-
-            // Set transaction ID to null for deleted transactions
-            // This avoids the foreign key constraint issue
-            history.setTransactionId(null);
-
-            // Save the history record FIRST (with null transaction ID)
-            TransactionHistory savedHistory = transactionHistoryRepository.save(history);
-
-            // Then delete the transaction
-            transactionRepository.delete(transaction);
-
-            logger.info("Transaction with ID {} was successfully deleted", id);
+            transactionService.deleteTransaction(id, currentUser.getId(), currentUser.getUsername());
 
             return ResponseEntity.ok(new MessageResponse("Transaction deleted successfully"));
+        } catch (ForbiddenException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new MessageResponse(e.getMessage()));
         } catch (Exception e) {
             logger.error("Error deleting transaction: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -303,14 +258,14 @@ public class TransactionController {
     @PutMapping({"/transactions/{id}/notes", "/api/transactions/{id}/notes"})
     public ResponseEntity<?> updateTransactionNotes(
             @PathVariable Long id,
-            @RequestBody Map<String, String> payload) {
+            @RequestBody Map<String, String> payload,
+            CurrentUser currentUser) {
         try {
-            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
             Transaction transaction = transactionRepository.findById(id)
                     .orElseThrow(() -> new ResourceNotFoundException("Transaction", "id", id));
 
             // Check if transaction belongs to authenticated user
-            if(!transaction.getUser().getId().equals(userDetails.getId())) {
+            if(!transaction.getUser().getId().equals(currentUser.getId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(new MessageResponse("You don't have permission to update this transaction"));
             }
@@ -329,15 +284,12 @@ public class TransactionController {
 
     // Add a new endpoint to get transaction history
     @GetMapping({"/transactions/{id}/history", "/api/transactions/{id}/history"})
-    public ResponseEntity<?> getTransactionHistory(@PathVariable Long id) {
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                .getAuthentication().getPrincipal();
-
+    public ResponseEntity<?> getTransactionHistory(@PathVariable Long id, CurrentUser currentUser) {
         // Verify the transaction exists and belongs to the current user
         Transaction transaction = transactionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Transaction", "id", id));
 
-        if(!transaction.getUser().getId().equals(userDetails.getId())) {
+        if(!transaction.getUser().getId().equals(currentUser.getId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(new MessageResponse("You don't have permission to view this transaction's history"));
         }
@@ -353,17 +305,28 @@ public class TransactionController {
         return ResponseEntity.ok(responseList);
     }
 
+    // Rebuild every version of a transaction from its history, newest first
+    @GetMapping({"/transactions/{id}/versions", "/api/transactions/{id}/versions"})
+    public ResponseEntity<?> getTransactionVersions(@PathVariable Long id, CurrentUser currentUser) {
+        Transaction transaction = transactionRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Transaction", "id", id));
+
+        if(!transaction.getUser().getId().equals(currentUser.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new MessageResponse("You don't have permission to view this transaction's history"));
+        }
+
+        return ResponseEntity.ok(transactionHistoryService.versionsOf(TransactionResponse.fromEntity(transaction)));
+    }
+
     // Check if a transaction has history
     @GetMapping({"/transactions/{id}/has-history", "/api/transactions/{id}/has-history"})
-    public ResponseEntity<?> hasTransactionHistory(@PathVariable Long id) {
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                .getAuthentication().getPrincipal();
-
+    public ResponseEntity<?> hasTransactionHistory(@PathVariable Long id, CurrentUser currentUser) {
         // Verify the transaction exists and belongs to the current user
         Transaction transaction = transactionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Transaction", "id", id));
 
-        if(!transaction.getUser().getId().equals(userDetails.getId())) {
+        if(!transaction.getUser().getId().equals(currentUser.getId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(new MessageResponse("You don't have permission to access this transaction"));
         }
@@ -375,11 +338,8 @@ public class TransactionController {
 
     // Add endpoint to get transactions for the calendar view
     @GetMapping({"/transactions/calendar", "/api/transactions/calendar"})
-    public ResponseEntity<?> getTransactionsForCalendar(@RequestParam(name = "month", required = false) String monthStr) {
+    public ResponseEntity<?> getTransactionsForCalendar(@RequestParam(name = "month", required = false) String monthStr, CurrentUser currentUser) {
         try {
-            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                    .getAuthentication().getPrincipal();
-
             LocalDate startDate;
             LocalDate endDate;
 
@@ -411,12 +371,8 @@ public class TransactionController {
             LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
 
             logger.debug("Fetching calendar transactions from {} to {}", startDateTime, endDateTime);
-            List<Transaction> transactions = transactionRepository.findByUserIdAndDateBetween(
-                    userDetails.getId(), startDateTime, endDateTime);
-
-            return ResponseEntity.ok(transactions.stream()
-                    .map(TransactionResponse::fromEntity)
-                    .collect(Collectors.toList()));
+            return ResponseEntity.ok(transactionRepository.findResponsesByUserIdAndDateBetween(
+                    currentUser.getId(), startDateTime, endDateTime));
         } catch (Exception e) {
             logger.error("Error fetching calendar transactions", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -426,10 +382,7 @@ public class TransactionController {
 
     // Add a new class to represent the batch delete request
     @PostMapping({"/transactions/batch-delete", "/api/transactions/batch-delete"})
-    public ResponseEntity<?> batchDeleteTransactions(@RequestBody Map<String, List<Long>> request) {
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                .getAuthentication().getPrincipal();
-
+    public ResponseEntity<?> batchDeleteTransactions(@RequestBody Map<String, List<Long>> request, CurrentUser currentUser) {
         try {
             List<Long> ids = request.get("ids");
 
@@ -440,66 +393,12 @@ public class TransactionController {
 
             logger.info("Batch delete request received for {} transactions: {}", ids.size(), ids);
 
-            int successCount = 0;
-            List<Long> failedIds = new ArrayList<>();
-            List<String> errors = new ArrayList<>();
-
-            // Process each transaction ID
-            for (Long id : ids) {
-                try {
-                    // Find the transaction
-                    Transaction transaction = transactionRepository.findById(id)
-                            .orElseThrow(() -> new ResourceNotFoundException("Transaction", "id", id));
-
-                    // Check if transaction belongs to current user
-                    if (!transaction.getUser().getId().equals(userDetails.getId())) {
-                        failedIds.add(id);
-                        errors.add("Transaction " + id + ": Permission denied");
-                        continue;
-                    }
+            TransactionService.BatchDeleteResult result = transactionService.batchDeleteTransactions(
+                    ids, currentUser.getId(), currentUser.getUsername());
 
-                    // Capture the transaction data before deletion
-                    String oldValueJson = objectMapper.writeValueAsString(
-                            TransactionResponse.fromEntity(transaction));
-
-                    // Revert the effect of this transaction on the account balance
-                    Account account = transaction.getAccount();
-                    if (transaction.getType() == Transaction.TransactionType.INCOME) {
-                        account.setBalance(account.getBalance().subtract(transaction.getAmount()));
-                    } else if (transaction.getType() == Transaction.TransactionType.EXPENSE) {
-                        account.setBalance(account.getBalance().add(transaction.getAmount()));
-                    }
-
-                    // Save the account with updated balance
-                    accountRepository.save(account);
-
-                    // Create a new transaction history record
-                    TransactionHistory history = new TransactionHistory();
-                    history.setOldValue(oldValueJson);
-                    history.setNewValue(null);
-                    history.setChangedAt(LocalDateTime.now());
-                    history.setChangedBy(userDetails.getUsername());
-                    history.setChangeType(TransactionHistory.ChangeType.DELETE.name());
-
-                    // Set transaction ID to null for deleted transactions
-                    history.setTransactionId(null);
-
-                    // Save the history record FIRST (with null transaction ID)
-                    transactionHistoryRepository.save(history);
-
-                    // Then delete the transaction
-
-                    transactionRepository.delete(transaction);
-
-                    // Increment success counter
-                    successCount++;
-
-                } catch (Exception e) {
-                    logger.error("Error deleting transaction ID {}: {}", id, e.getMessage());
-                    failedIds.add(id);
-                    errors.add("Transaction " + id + ": " + e.getMessage());
-                }
-            }
+            int successCount = result.getSuccessCount();
+            List<Long> failedIds = result.getFailedIds();
+            List<String> errors = result.getErrors();
 
             // Build appropriate response based on results
             if (failedIds.isEmpty()) {
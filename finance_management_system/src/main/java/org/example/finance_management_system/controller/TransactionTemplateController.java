@@ -10,14 +10,12 @@ import org.example.finance_management_system.model.TransactionTemplate;
 import org.example.finance_management_system.model.User;
 import org.example.finance_management_system.repository.AccountRepository;
 import org.example.finance_management_system.repository.TransactionTemplateRepository;
-import org.example.finance_management_system.repository.UserRepository;
-import org.example.finance_management_system.security.services.UserDetailsImpl;
+import org.example.finance_management_system.security.CurrentUser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
@@ -31,9 +29,6 @@ public class TransactionTemplateController {
     @Autowired
     private TransactionTemplateRepository templateRepository;
 
-    @Autowired
-    private UserRepository userRepository;
-
     @Autowired
     private AccountRepository accountRepository;
 
@@ -41,13 +36,9 @@ public class TransactionTemplateController {
 
     // Get all templates for current user
     @GetMapping({"/transaction-templates", "/api/transaction-templates"})
-    public ResponseEntity<?> getAllTemplates() {
+    public ResponseEntity<?> getAllTemplates(CurrentUser currentUser) {
         try {
-            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                    .getAuthentication().getPrincipal();
-
-            User user = userRepository.findById(userDetails.getId())
-                    .orElseThrow(() -> new ResourceNotFoundException("User", "id", userDetails.getId()));
+            User user = currentUser.reference();
 
             List<TransactionTemplate> templates = templateRepository.findByUserOrderByNameAsc(user);
 
@@ -65,15 +56,12 @@ public class TransactionTemplateController {
 
     // Create new template
     @PostMapping({"/transaction-templates", "/api/transaction-templates"})
-    public ResponseEntity<?> createTemplate(@Valid @RequestBody TransactionTemplateRequest request) {
+    public ResponseEntity<?> createTemplate(@Valid @RequestBody TransactionTemplateRequest request, CurrentUser currentUser) {
         try {
             logger.info("Creating template with request: {}", request);
 
-            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                    .getAuthentication().getPrincipal();
 
-            User user = userRepository.findById(userDetails.getId())
-                    .orElseThrow(() -> new ResourceNotFoundException("User", "id", userDetails.getId()));
+            User user = currentUser.reference();
 
             TransactionTemplate template = new TransactionTemplate();
             template.setName(request.getName());
@@ -117,13 +105,10 @@ public class TransactionTemplateController {
 
     // Delete template
     @DeleteMapping({"/transaction-templates/{id}", "/api/transaction-templates/{id}"})
-    public ResponseEntity<?> deleteTemplate(@PathVariable Long id) {
+    public ResponseEntity<?> deleteTemplate(@PathVariable Long id, CurrentUser currentUser) {
         try {
-            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext()
-                    .getAuthentication().getPrincipal();
-
             // Check if template exists and belongs to user
-            if (!templateRepository.existsByIdAndUserId(id, userDetails.getId())) {
+            if (!templateRepository.existsByIdAndUserId(id, currentUser.getId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(new MessageResponse("Template not found or you don't have permission to delete it"));
             }
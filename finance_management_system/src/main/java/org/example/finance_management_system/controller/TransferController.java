@@ -3,25 +3,23 @@ package org.example.finance_management_system.controller;
 import org.example.finance_management_system.dto.request.TransferRequest;
 import org.example.finance_management_system.dto.response.MessageResponse;
 import org.example.finance_management_system.dto.response.TransferResponse;
+import org.example.finance_management_system.exception.BadRequestException;
+import org.example.finance_management_system.exception.ForbiddenException;
 import org.example.finance_management_system.exception.ResourceNotFoundException;
-import org.example.finance_management_system.model.Account;
+import org.example.finance_management_system.interceptor.IdempotencyInterceptor;
 import org.example.finance_management_system.model.Transfer;
-import org.example.finance_management_system.model.User;
-import org.example.finance_management_system.repository.AccountRepository;
 import org.example.finance_management_system.repository.TransferRepository;
-import org.example.finance_management_system.repository.UserRepository;
-import org.example.finance_management_system.security.services.UserDetailsImpl;
+import org.example.finance_management_system.security.CurrentUser;
+import org.example.finance_management_system.service.EntityLookupCache;
+import org.example.finance_management_system.service.TransferService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -33,18 +31,16 @@ public class TransferController {
     private TransferRepository transferRepository;
 
     @Autowired
-    private AccountRepository accountRepository;
+    private EntityLookupCache entityLookupCache;
 
     @Autowired
-    private UserRepository userRepository;
+    private TransferService transferService;
 
     private static final Logger logger = LoggerFactory.getLogger(TransferController.class);
 
     @GetMapping({"/transfers", "/api/transfers"})
-    public ResponseEntity<?> getAllTransfers() {
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-
-        List<Transfer> transfers = transferRepository.findByUserIdOrderByDateDesc(userDetails.getId());
+    public ResponseEntity<?> getAllTransfers(CurrentUser currentUser) {
+        List<Transfer> transfers = transferRepository.findByUserIdOrderByDateDesc(currentUser.getId());
         List<TransferResponse> transferResponses = transfers.stream()
                 .map(TransferResponse::fromEntity)
                 .collect(Collectors.toList());
@@ -53,14 +49,12 @@ public class TransferController {
     }
 
     @GetMapping({"/transfers/{id}", "/api/transfers/{id}"})
-    public ResponseEntity<?> getTransferById(@PathVariable Long id) {
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-
+    public ResponseEntity<?> getTransferById(@PathVariable Long id, CurrentUser currentUser) {
         Transfer transfer = transferRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Transfer", "id", id));
 
         // Verify the transfer belongs to the current user
-        if (!transfer.getUser().getId().equals(userDetails.getId())) {
+        if (!transfer.getUser().getId().equals(currentUser.getId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(new MessageResponse("You don't have permission to view this transfer"));
         }
@@ -69,59 +63,23 @@ public class TransferController {
     }
 
     @PostMapping({"/transfers", "/api/transfers"})
-    public ResponseEntity<?> createTransfer(@Valid @RequestBody TransferRequest request) {
+    public ResponseEntity<?> createTransfer(@Valid @RequestBody TransferRequest request,
+                                            @RequestHeader(value = IdempotencyInterceptor.HEADER, required = false)
+                                            String idempotencyKey,
+                                            CurrentUser currentUser) {
         try {
-            UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-            User user = userRepository.findById(userDetails.getId())
-                    .orElseThrow(() -> new ResourceNotFoundException("User", "id", userDetails.getId()));
-
-            // Update method calls to use the correct method names
-            // Get source account
-            Account sourceAccount = accountRepository.findById(request.getFromAccountId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Account", "id", request.getFromAccountId()));
-
-            // Get destination account
-            Account destinationAccount = accountRepository.findById(request.getToAccountId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Account", "id", request.getToAccountId()));
-
-            // Verify both accounts belong to the user
-            if (!sourceAccount.getUser().getId().equals(userDetails.getId()) ||
-                    !destinationAccount.getUser().getId().equals(userDetails.getId())) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(new MessageResponse("You don't have permission to use these accounts"));
-            }
-
-            // Verify source account has sufficient funds
-            if (sourceAccount.getBalance().compareTo(request.getAmount()) < 0) {
-                return ResponseEntity.badRequest()
-                        .body(new MessageResponse("Insufficient funds in source account"));
-            }
-
-            // Verify amount is positive
-            if (request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-                return ResponseEntity.badRequest()
-                        .body(new MessageResponse("Transfer amount must be positive"));
-            }
-
-            // Create transfer record
-            Transfer transfer = new Transfer();
-            transfer.setSourceAccount(sourceAccount);
-            transfer.setDestinationAccount(destinationAccount);
-            transfer.setAmount(request.getAmount());
-            transfer.setDescription(request.getDescription());
-            transfer.setDate(LocalDateTime.now());
-            transfer.setUser(user);
-
-            // Update account balances
-            sourceAccount.setBalance(sourceAccount.getBalance().subtract(request.getAmount()));
-            destinationAccount.setBalance(destinationAccount.getBalance().add(request.getAmount()));
-
-            // Save all entities
-            accountRepository.save(sourceAccount);
-            accountRepository.save(destinationAccount);
-            transferRepository.save(transfer);
+            Transfer transfer = transferService.transfer(request, currentUser.getId(), idempotencyKey, false);
 
             return ResponseEntity.ok(TransferResponse.fromEntity(transfer));
+        } catch (ForbiddenException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new MessageResponse("You don't have permission to use these accounts"));
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse(e.getMessage()));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new MessageResponse(e.getMessage()));
         } catch (Exception e) {
             logger.error("Error creating transfer", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -131,24 +89,14 @@ public class TransferController {
 
     // Add this endpoint to get transfers by account ID
     @GetMapping({"/transfers/by-account/{accountId}", "/api/transfers/by-account/{accountId}"})
-    public ResponseEntity<?> getTransfersByAccount(@PathVariable Long accountId) {
-        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-
+    public ResponseEntity<?> getTransfersByAccount(@PathVariable Long accountId, CurrentUser currentUser) {
         // Verify the account belongs to the current user
-        Account account = accountRepository.findById(accountId)
-                .orElseThrow(() -> new ResourceNotFoundException("Account", "id", accountId));
-
-        if (!account.getUser().getId().equals(userDetails.getId())) {
+        if (!entityLookupCache.isAccountOwnedBy(accountId, currentUser.getId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(new MessageResponse("You don't have permission to view transfers for this account"));
         }
 
-        // Fix: Use the correct parameter order for this method
-        List<Transfer> transfers = transferRepository.findBySourceAccountIdOrDestinationAccountId(accountId);
-        List<TransferResponse> transferResponses = transfers.stream()
-                .map(TransferResponse::fromEntity)
-                .collect(Collectors.toList());
-
-        return ResponseEntity.ok(transferResponses);
+        // Newest first, read through the per-account indexes with both accounts join-fetched
+        return ResponseEntity.ok(transferService.accountTransfers(accountId, null, 0));
     }
 }
@@ -0,0 +1,60 @@
+package org.example.finance_management_system.dto.request;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. Callers clamp the requested size with
+ * {@link #size(Integer)}, fetch {@code size + 1} rows strictly after {@link #after(String)}, and
+ * let {@link #of} trim the extra row: its presence is what tells whether another page exists,
+ * so no COUNT query is needed.
+ */
+public class KeysetPage<T> {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 200;
+
+    private final List<T> rows;
+    private final String nextCursor;
+
+    private KeysetPage(List<T> rows, String nextCursor) {
+        this.rows = rows;
+        this.nextCursor = nextCursor;
+    }
+
+    // Page size to serve for the requested one, between 1 and MAX_SIZE
+    public static int size(Integer requested) {
+        return requested == null ? DEFAULT_SIZE : Math.max(1, Math.min(requested, MAX_SIZE));
+    }
+
+    // Decoded cursor, or null for the first page
+    public static TransactionCursor after(String cursor) {
+        return cursor == null || cursor.isEmpty() ? null : TransactionCursor.decode(cursor);
+    }
+
+    /**
+     * Build a page from up to {@code size + 1} fetched rows.
+     *
+     * @param cursorOf (date, id) key of a row, used for the next cursor after the last row served
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, int size, Function<T, TransactionCursor> cursorOf) {
+        if (rows.size() <= size) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> page = rows.subList(0, size);
+        return new KeysetPage<>(page, cursorOf.apply(page.get(size - 1)).encode());
+    }
+
+    public List<T> getRows() {
+        return rows;
+    }
+
+    // Opaque cursor for the next page, null when there are no more rows
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.finance_management_system.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalancePointResponse {
+    private LocalDate date;
+
+    // Closing balance at the end of the day, null when it is not known
+    private BigDecimal balance;
+}
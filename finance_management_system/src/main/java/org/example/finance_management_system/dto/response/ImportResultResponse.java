@@ -0,0 +1,27 @@
+package org.example.finance_management_system.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class ImportResultResponse {
+    private int totalRows;
+    private int importedCount;
+    private int failedCount;
+
+    // Only the first errors are kept so a bad file cannot blow up the response
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private int row;
+        private String message;
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.finance_management_system.dto.response;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.finance_management_system.model.Account;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * What a user owns and owes: account balances by type, savings that have not been withdrawn
+ * (principal plus interest accrued so far) and the principal still outstanding on loans.
+ */
+@Data
+@NoArgsConstructor
+public class NetWorthResponse {
+    // Every account type is present, with zero when the user has none of it
+    private Map<Account.AccountType, BigDecimal> accountsByType = new EnumMap<>(Account.AccountType.class);
+    private BigDecimal accountsTotal = BigDecimal.ZERO;
+    private BigDecimal savingsPrincipal = BigDecimal.ZERO;
+    private BigDecimal savingsAccruedInterest = BigDecimal.ZERO;
+    private BigDecimal savingsTotal = BigDecimal.ZERO;
+    private BigDecimal loansOutstandingPrincipal = BigDecimal.ZERO;
+    private BigDecimal netWorth = BigDecimal.ZERO;
+}
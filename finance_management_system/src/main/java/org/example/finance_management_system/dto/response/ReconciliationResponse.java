@@ -0,0 +1,21 @@
+package org.example.finance_management_system.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * An account balance next to the sum of its ledger lines; a non-zero difference means the
+ * balance was changed outside the ledger.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationResponse {
+    private Long accountId;
+    private BigDecimal balance;
+    private BigDecimal postedBalance;
+    private BigDecimal difference;
+}
@@ -0,0 +1,36 @@
+package org.example.finance_management_system.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.finance_management_system.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class TransactionAggregateResponse {
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private String bucket;
+    private BigDecimal totalIncome = BigDecimal.ZERO;
+    private BigDecimal totalExpense = BigDecimal.ZERO;
+    private BigDecimal balance = BigDecimal.ZERO;
+
+    // Sorted by period, then type and category; periodStart is null when not bucketed by date
+    private List<Bucket> buckets = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        private LocalDate periodStart;
+        private Transaction.TransactionType type;
+        private Transaction.Category category;
+        private BigDecimal total;
+        private long count;
+    }
+}
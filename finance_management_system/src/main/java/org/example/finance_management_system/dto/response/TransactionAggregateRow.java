@@ -0,0 +1,37 @@
+package org.example.finance_management_system.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.finance_management_system.model.Transaction;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of a grouped SUM/COUNT over transactions, built directly by the aggregate queries
+ * in TransactionRepository. Date parts that the query does not group by are left null.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionAggregateRow {
+    private Integer year;
+    private Integer month;
+    private Integer day;
+    private Transaction.TransactionType type;
+    private Transaction.Category category;
+    private BigDecimal total;
+    private Long count;
+
+    // Used by the ungrouped-by-date query
+    public TransactionAggregateRow(Transaction.TransactionType type, Transaction.Category category,
+                                   BigDecimal total, Long count) {
+        this(null, null, null, type, category, total, count);
+    }
+
+    // Used by the monthly query
+    public TransactionAggregateRow(Integer year, Integer month, Transaction.TransactionType type,
+                                   Transaction.Category category, BigDecimal total, Long count) {
+        this(year, month, null, type, category, total, count);
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.finance_management_system.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionHistoryPageResponse {
+    private List<TransactionHistoryResponse> items;
+
+    // Opaque cursor to pass back for the next page, null when there are no more rows
+    private String nextCursor;
+
+    private boolean hasMore;
+}
@@ -0,0 +1,20 @@
+package org.example.finance_management_system.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Part of an account balance that no ledger line accounts for, read by
+ * LedgerEntryRepository.findUnpostedBalances.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UnpostedBalanceRow {
+    private Long accountId;
+    private Long userId;
+    private BigDecimal unposted;
+}
@@ -0,0 +1,141 @@
+package org.example.finance_management_system.interceptor;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.finance_management_system.config.IdempotencyProperties;
+import org.example.finance_management_system.exception.BadRequestException;
+import org.example.finance_management_system.exception.ConflictException;
+import org.example.finance_management_system.security.services.UserDetailsImpl;
+import org.example.finance_management_system.service.IdempotencyService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Honours the Idempotency-Key header on the configured POST routes. The first request with a
+ * key claims it and runs; its response is stored when it completes, and later requests with the
+ * same key get that response back without reaching the controller. A key is bound to the
+ * concrete request path and the hash taken by {@link IdempotentRequestFilter}, so reusing it for
+ * another loan, installment or body is rejected rather than replayed. A request that fails with a
+ * 5xx or a 429 gives its key back so the client can retry it. Registered after the rate limiter,
+ * so rejected requests never claim a key.
+ */
+@Component
+public class IdempotencyInterceptor implements HandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyInterceptor.class);
+
+    public static final String HEADER = "Idempotency-Key";
+
+    // Set on replayed responses so clients and logs can tell them apart
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    static final String CLAIM_ATTRIBUTE = IdempotencyInterceptor.class.getName() + ".claim";
+
+    static final String BODY_ATTRIBUTE = IdempotencyInterceptor.class.getName() + ".body";
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private static final String API_PREFIX = "/api/";
+
+    @Autowired
+    private IdempotencyProperties properties;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (!properties.isEnabled() || !(handler instanceof HandlerMethod)
+                || request.getDispatcherType() == DispatcherType.ASYNC
+                || !HttpMethod.POST.matches(request.getMethod())) {
+            return true;
+        }
+
+        String key = request.getHeader(HEADER);
+        String route = RateLimitInterceptor.routeOf(request);
+        Long userId = currentUserId();
+        if (key == null || key.isBlank() || userId == null || !properties.getRoutes().contains(route)) {
+            return true;
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String path = requestPath(request);
+        String requestHash = (String) request.getAttribute(IdempotentRequestFilter.REQUEST_HASH_ATTRIBUTE);
+        IdempotencyService.Claim claim = idempotencyService.claim(userId, key, path, requestHash);
+        switch (claim.outcome()) {
+            case CLAIMED:
+                request.setAttribute(CLAIM_ATTRIBUTE, new PendingKey(userId, key, path, requestHash));
+                return true;
+            case REPLAY:
+                logger.debug("Replaying stored response for {} on {}", HEADER, path);
+                replay(response, claim.response());
+                return false;
+            case IN_PROGRESS:
+                throw new ConflictException("A request with this " + HEADER + " is still in progress");
+            case REQUEST_MISMATCH:
+            default:
+                throw new BadRequestException("This " + HEADER + " was already used for a different request");
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (!(request.getAttribute(CLAIM_ATTRIBUTE) instanceof PendingKey pending)) {
+            return;
+        }
+        Object body = request.getAttribute(BODY_ATTRIBUTE);
+        int status = response.getStatus();
+        if (ex == null && body instanceof String json && status < 500
+                && status != HttpStatus.TOO_MANY_REQUESTS.value()) {
+            idempotencyService.complete(pending.userId(), pending.key(), pending.path(), pending.requestHash(),
+                    status, json);
+        } else {
+            idempotencyService.release(pending.userId(), pending.key());
+        }
+    }
+
+    // Concrete path without the /api alias, e.g. /loans/2/pay/1 rather than its mapping pattern
+    static String requestPath(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.startsWith(API_PREFIX) ? path.substring(API_PREFIX.length() - 1) : path;
+    }
+
+    private static void replay(HttpServletResponse response, IdempotencyService.StoredResponse stored)
+            throws IOException {
+        response.setStatus(stored.statusCode());
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        if (stored.body() != null) {
+            response.getWriter().write(stored.body());
+        }
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl userDetails) {
+            return userDetails.getId();
+        }
+        return null;
+    }
+
+    record PendingKey(Long userId, String key, String path, String requestHash) {
+    }
+}
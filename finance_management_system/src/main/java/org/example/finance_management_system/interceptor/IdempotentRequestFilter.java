@@ -0,0 +1,132 @@
+package org.example.finance_management_system.interceptor;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.finance_management_system.config.IdempotencyProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Fingerprints POST requests that carry an Idempotency-Key: the body is read once, kept in memory
+ * for the controller and hashed together with the query string, so {@link IdempotencyInterceptor}
+ * can tell a retry from a different request sent with the same key. Multipart and form bodies
+ * are left unread and only their query string is hashed.
+ */
+@Component
+public class IdempotentRequestFilter extends OncePerRequestFilter {
+
+    static final String REQUEST_HASH_ATTRIBUTE = IdempotentRequestFilter.class.getName() + ".requestHash";
+
+    @Autowired
+    private IdempotencyProperties properties;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled()
+                || !HttpMethod.POST.matches(request.getMethod())
+                || request.getHeader(IdempotencyInterceptor.HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        byte[] body = hasReadableBody(request) ? request.getInputStream().readAllBytes() : new byte[0];
+        request.setAttribute(REQUEST_HASH_ATTRIBUTE, hash(request.getQueryString(), body));
+        filterChain.doFilter(body.length > 0 ? new CachedBodyRequest(request, body) : request, response);
+    }
+
+    // The container parses multipart and form bodies itself, so they must not be consumed here
+    private static boolean hasReadableBody(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        if (contentType == null) {
+            return true;
+        }
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        return !MediaType.MULTIPART_FORM_DATA.includes(mediaType)
+                && !MediaType.APPLICATION_FORM_URLENCODED.includes(mediaType);
+    }
+
+    static String hash(String queryString, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            if (queryString != null) {
+                digest.update(queryString.getBytes(StandardCharsets.UTF_8));
+            }
+            // Separates the query from the body so the two cannot be shifted into each other
+            digest.update((byte) 0);
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Serves the already-read body to the message converters.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException("Cached request bodies are read synchronously");
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.finance_management_system.interceptor;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Captures the JSON body of responses to requests that claimed an Idempotency-Key, so that
+ * {@link IdempotencyInterceptor} can store it once the request completes. Error bodies written
+ * by the exception handlers pass through here too.
+ */
+@ControllerAdvice
+public class IdempotentResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotentResponseAdvice.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && servletRequest.getServletRequest().getAttribute(IdempotencyInterceptor.CLAIM_ATTRIBUTE) != null) {
+            try {
+                servletRequest.getServletRequest().setAttribute(IdempotencyInterceptor.BODY_ATTRIBUTE,
+                        objectMapper.writeValueAsString(body));
+            } catch (JsonProcessingException e) {
+                // Without a body the claim is released and a retry runs the request again
+                logger.warn("Could not serialize response for idempotent replay", e);
+            }
+        }
+        return body;
+    }
+}
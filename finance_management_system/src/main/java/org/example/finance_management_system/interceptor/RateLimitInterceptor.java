@@ -0,0 +1,135 @@
+package org.example.finance_management_system.interceptor;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.finance_management_system.config.RateLimitProperties;
+import org.example.finance_management_system.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Per-client, per-route sliding window rate limiter. Clients are keyed by JWT subject, or by
+ * remote address for unauthenticated routes. Counters are updated with compare-and-set, and
+ * the set of tracked keys is a bounded cache, so memory stays flat however many clients call.
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final String API_PREFIX = "/api/";
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    private Cache<String, SlidingWindow> windows;
+
+    @PostConstruct
+    void init() {
+        windows = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxKeys())
+                // After two idle windows a counter has no effect on the estimate any more
+                .expireAfterAccess(Duration.ofMillis(2 * properties.getWindowMs()))
+                .build();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Async dispatches re-run interceptors for a request that was already counted
+        if (!properties.isEnabled() || !(handler instanceof HandlerMethod)
+                || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+
+        String route = routeOf(request);
+        int limit = properties.getRoutes().getOrDefault(route, properties.getDefaultLimit());
+        if (limit <= 0) {
+            return true;
+        }
+
+        long windowMs = properties.getWindowMs();
+        SlidingWindow window = windows.get(clientOf(request) + '|' + route, key -> new SlidingWindow());
+        long waitMs = window.tryAcquire(System.currentTimeMillis(), windowMs, limit);
+        if (waitMs > 0) {
+            long retryAfterSeconds = Math.max(1, (waitMs + 999) / 1000);
+            throw new TooManyRequestsException("Rate limit exceeded for " + route, retryAfterSeconds);
+        }
+        return true;
+    }
+
+    // Mapping pattern without the /api alias, so both spellings of a route share one limit
+    static String routeOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern != null ? pattern.toString() : request.getRequestURI();
+        return route.startsWith(API_PREFIX) ? route.substring(API_PREFIX.length() - 1) : route;
+    }
+
+    private static String clientOf(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    /**
+     * Sliding window counter: the estimate is the current window's count plus the previous
+     * window's count weighted by how much of it still overlaps the sliding window.
+     */
+    static final class SlidingWindow {
+
+        private record State(long index, int previous, int current) {
+        }
+
+        private final AtomicReference<State> state = new AtomicReference<>(new State(0, 0, 0));
+
+        /**
+         * Count one request at {@code now} if it fits under {@code limit}.
+         *
+         * @return 0 when the request is allowed, otherwise the milliseconds until it would be
+         */
+        long tryAcquire(long now, long windowMs, int limit) {
+            long index = now / windowMs;
+            long elapsed = now - index * windowMs;
+            while (true) {
+                State current = state.get();
+                State base = current;
+                if (current.index() != index) {
+                    int previous = current.index() == index - 1 ? current.current() : 0;
+                    base = new State(index, previous, 0);
+                }
+
+                double weight = 1.0 - (double) elapsed / windowMs;
+                if (base.previous() * weight + base.current() + 1 > limit) {
+                    return waitMs(base, elapsed, windowMs, limit);
+                }
+                if (state.compareAndSet(current, new State(index, base.previous(), base.current() + 1))) {
+                    return 0;
+                }
+            }
+        }
+
+        private static long waitMs(State state, long elapsed, long windowMs, int limit) {
+            if (state.current() + 1 <= limit) {
+                // Wait for the previous window's weight to decay enough within this window
+                double maxWeight = (double) (limit - 1 - state.current()) / state.previous();
+                return Math.max(1, (long) Math.ceil(windowMs * (1 - maxWeight)) - elapsed);
+            }
+            // This window alone is full: wait into the next one until its weight decays
+            double maxWeight = (double) (limit - 1) / state.current();
+            return windowMs - elapsed + (long) Math.ceil(windowMs * (1 - maxWeight));
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package org.example.finance_management_system.logging;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.finance_management_system.metrics.FinanceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Tracks per-request {@link RequestStats}, records the SQL statement count per route as a
+ * metric and, when access-log.enabled is set, writes one access log line per request to the
+ * "access" logger: method, path, status, latency, user id, number of SQL statements and time
+ * spent in them. Runs ahead of the security filters so the latency covers the whole request.
+ * The fields are attached as key/value pairs, which the structured (JSON) encoder of the prod
+ * profile renders as separate properties.
+ * <p>
+ * Requests issuing more statements or spending more time in the database than the
+ * query-stats thresholds are logged as warnings with their route. With
+ * query-stats.response-headers the counts are also sent as X-Query-Count and X-Query-Time-Ms;
+ * they are taken when the response is committed, so statements run while streaming the body
+ * are not included.
+ */
+// Right after CorsFilter, which also claims HIGHEST_PRECEDENCE, so the two never tie
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    // Set by the JWT filter once the request is authenticated
+    public static final String USER_ID_ATTRIBUTE = AccessLogFilter.class.getName() + ".userId";
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    public static final String QUERY_TIME_HEADER = "X-Query-Time-Ms";
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessLogFilter.class);
+
+    private static final Logger accessLog = LoggerFactory.getLogger("access");
+
+    @Value("${access-log.enabled:false}")
+    private boolean accessLogEnabled;
+
+    @Value("${query-stats.warn-count:50}")
+    private int warnQueryCount;
+
+    @Value("${query-stats.warn-time-ms:1000}")
+    private long warnQueryTimeMs;
+
+    @Value("${query-stats.response-headers:false}")
+    private boolean responseHeaders;
+
+    @Autowired
+    private FinanceMetrics financeMetrics;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        RequestStats stats = RequestStats.start();
+        if (responseHeaders) {
+            response = new QueryStatsHeaderWriter(response, stats);
+        }
+        HttpServletResponse tracked = response;
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestStats.clear();
+            if (tracked instanceof QueryStatsHeaderWriter writer && !writer.isCommitted()) {
+                // Nothing was flushed yet, e.g. an empty body; add the headers now
+                writer.onResponseCommitted();
+            }
+            if (request.isAsyncStarted()) {
+                // Streaming and async handlers finish later; log when the response completes
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        complete(request, tracked, start, stats);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                complete(request, tracked, start, stats);
+            }
+        }
+    }
+
+    private void complete(HttpServletRequest request, HttpServletResponse response, long start, RequestStats stats) {
+        // Unmatched requests share one tag value so unknown paths cannot blow up cardinality
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern != null ? pattern.toString() : "UNKNOWN";
+        financeMetrics.requestQueries(request.getMethod(), route, stats.getQueryCount());
+
+        if (stats.getQueryCount() > warnQueryCount || stats.getQueryTimeMs() > warnQueryTimeMs) {
+            logger.warn("{} {} issued {} SQL statements taking {} ms", request.getMethod(), route,
+                    stats.getQueryCount(), stats.getQueryTimeMs());
+        }
+
+        if (accessLogEnabled && accessLog.isInfoEnabled()) {
+            log(request, response, start, stats);
+        }
+    }
+
+    private static void log(HttpServletRequest request, HttpServletResponse response, long start, RequestStats stats) {
+        long latencyMs = (System.nanoTime() - start) / 1_000_000;
+        accessLog.atInfo()
+                .addKeyValue("method", request.getMethod())
+                .addKeyValue("path", request.getRequestURI())
+                .addKeyValue("status", response.getStatus())
+                .addKeyValue("latencyMs", latencyMs)
+                .addKeyValue("userId", request.getAttribute(USER_ID_ATTRIBUTE))
+                .addKeyValue("queries", stats.getQueryCount())
+                .addKeyValue("queryTimeMs", stats.getQueryTimeMs())
+                .log("{} {} {} {}ms", request.getMethod(), request.getRequestURI(), response.getStatus(), latencyMs);
+    }
+
+    // Adds the query headers just before the status line and headers are sent
+    private static final class QueryStatsHeaderWriter extends OnCommittedResponseWrapper {
+
+        private final RequestStats stats;
+
+        QueryStatsHeaderWriter(HttpServletResponse response, RequestStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            setHeader(QUERY_COUNT_HEADER, String.valueOf(stats.getQueryCount()));
+            setHeader(QUERY_TIME_HEADER, String.valueOf(stats.getQueryTimeMs()));
+        }
+    }
+}
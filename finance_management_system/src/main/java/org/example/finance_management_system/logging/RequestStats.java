@@ -0,0 +1,43 @@
+package org.example.finance_management_system.logging;
+
+/**
+ * Counters for the request being handled on the current thread, started and cleared by
+ * {@link AccessLogFilter}. Work done on other threads (e.g. async export writers) is not counted.
+ */
+public final class RequestStats {
+
+    private static final ThreadLocal<RequestStats> CURRENT = new ThreadLocal<>();
+
+    private int queryCount;
+    private long queryNanos;
+
+    private RequestStats() {
+    }
+
+    static RequestStats start() {
+        RequestStats stats = new RequestStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    // Called for every executed SQL statement; a no-op outside of an HTTP request
+    static void recordQuery(long nanos) {
+        RequestStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.queryCount++;
+            stats.queryNanos += nanos;
+        }
+    }
+
+    public int getQueryCount() {
+        return queryCount;
+    }
+
+    public long getQueryTimeMs() {
+        return queryNanos / 1_000_000;
+    }
+}
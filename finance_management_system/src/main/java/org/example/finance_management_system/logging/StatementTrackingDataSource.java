@@ -0,0 +1,98 @@
+package org.example.finance_management_system.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * JDBC proxies that time every statement execution and add it to the current request's
+ * {@link RequestStats}. Sitting below both Hibernate and JdbcTemplate, they see every statement
+ * the application runs. A single execution slower than the slow query threshold is logged with
+ * its SQL.
+ */
+final class StatementTrackingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementTrackingDataSource.class);
+
+    private static final int MAX_LOGGED_SQL_LENGTH = 1000;
+
+    private StatementTrackingDataSource() {
+    }
+
+    static DataSource wrap(DataSource target, long slowQueryMs) {
+        return proxy(DataSource.class, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof Connection connection && method.getName().equals("getConnection")) {
+                return trackConnection(connection, slowQueryMs);
+            }
+            return result;
+        });
+    }
+
+    private static Connection trackConnection(Connection target, long slowQueryMs) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            switch (method.getName()) {
+                case "createStatement":
+                    return trackStatement(Statement.class, (Statement) result, null, slowQueryMs);
+                case "prepareStatement":
+                    return trackStatement(PreparedStatement.class, (Statement) result, (String) args[0], slowQueryMs);
+                case "prepareCall":
+                    return trackStatement(CallableStatement.class, (Statement) result, (String) args[0], slowQueryMs);
+                default:
+                    return result;
+            }
+        });
+    }
+
+    private static <T extends Statement> T trackStatement(Class<T> type, Statement target, String preparedSql,
+                                                          long slowQueryMs) {
+        return proxy(type, (proxy, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invoke(target, method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return invoke(target, method, args);
+            } finally {
+                long nanos = System.nanoTime() - start;
+                RequestStats.recordQuery(nanos);
+                long ms = nanos / 1_000_000;
+                if (ms >= slowQueryMs && logger.isWarnEnabled()) {
+                    String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+                    logger.warn("Slow query ({} ms): {}", ms, abbreviate(sql));
+                }
+            }
+        });
+    }
+
+    private static String abbreviate(String sql) {
+        if (sql == null || sql.length() <= MAX_LOGGED_SQL_LENGTH) {
+            return sql;
+        }
+        return sql.substring(0, MAX_LOGGED_SQL_LENGTH) + "...";
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(StatementTrackingDataSource.class.getClassLoader(),
+                new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
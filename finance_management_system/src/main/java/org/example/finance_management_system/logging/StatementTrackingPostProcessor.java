@@ -0,0 +1,26 @@
+package org.example.finance_management_system.logging;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application's DataSource in {@link StatementTrackingDataSource}. The wrapper
+ * forwards unwrap(), so pool metrics and metadata still reach the underlying Hikari pool.
+ */
+@Component
+public class StatementTrackingPostProcessor implements BeanPostProcessor {
+
+    @Value("${query-stats.slow-query-ms:500}")
+    private long slowQueryMs;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return StatementTrackingDataSource.wrap(dataSource, slowQueryMs);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.finance_management_system.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Application specific meters. Request latency per route comes from Spring's own
+ * http.server.requests timer; this class adds what the framework cannot see.
+ */
+@Component
+public class FinanceMetrics {
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private Counter balanceMutations;
+    private Counter historyWrites;
+
+    @PostConstruct
+    void init() {
+        balanceMutations = Counter.builder("finance.balance.mutations")
+                .description("Account balance updates written to the database")
+                .register(registry);
+        historyWrites = Counter.builder("finance.history.writes")
+                .description("Transaction history rows written")
+                .register(registry);
+    }
+
+    public void balanceMutated(int accounts) {
+        balanceMutations.increment(accounts);
+    }
+
+    public void historyWritten(int rows) {
+        historyWrites.increment(rows);
+    }
+
+    // SQL statements issued while handling one request, tagged like http.server.requests
+    public void requestQueries(String method, String uri, int queries) {
+        DistributionSummary.builder("http.server.requests.queries")
+                .description("SQL statements per HTTP request")
+                .baseUnit("statements")
+                .tag("method", method)
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(queries);
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.finance_management_system.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Closing balance of an account on a day. Upserted in the same database transaction as every
+ * balance change, and shifted by changes posted later but dated on or before the day, so the
+ * row for a day always holds the balance at its end; days without writes have no row and carry
+ * the previous day's balance.
+ */
+@Entity
+@Table(name = "account_balance_snapshots", uniqueConstraints = {
+        // Upsert key; also serves "latest snapshot on or before a date" for one account
+        @UniqueConstraint(name = "uk_balance_snapshot_account_date", columnNames = {"account_id", "snapshot_date"})
+})
+@Data
+@NoArgsConstructor
+public class AccountBalanceSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @NotNull
+    @Column(name = "snapshot_date", nullable = false)
+    private LocalDate snapshotDate;
+
+    @NotNull
+    @Column(name = "balance", precision = 19, scale = 2, nullable = false)
+    private BigDecimal balance;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
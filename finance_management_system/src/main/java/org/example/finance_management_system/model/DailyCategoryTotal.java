@@ -0,0 +1,86 @@
+package org.example.finance_management_system.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Comparator;
+
+/**
+ * Pre-aggregated sum and count of transactions per user, account, day, type and category.
+ * Kept in step with the transactions table by DailyTotalsService inside the same database
+ * transaction as every write, so analytics read a few rows per day instead of raw transactions.
+ */
+@Entity
+@Table(name = "daily_category_totals", uniqueConstraints = {
+        // Upsert key; user_id and date lead so date-range reads for one user use the index
+        @UniqueConstraint(name = "uk_daily_totals_user_date_account_type_category",
+                columnNames = {"user_id", "date", "account_id", "type", "category"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyCategoryTotal {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @NotNull
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @NotNull
+    @Column(name = "date", nullable = false)
+    private LocalDate date;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false)
+    private Transaction.TransactionType type;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "category", nullable = false)
+    private Transaction.Category category;
+
+    @NotNull
+    @Column(name = "total", precision = 19, scale = 2, nullable = false)
+    private BigDecimal total;
+
+    @NotNull
+    @Column(name = "txn_count", nullable = false)
+    private Long count;
+
+    /**
+     * Identity of a rollup row. Ordered so batched upserts always touch rows in the same order.
+     */
+    public record Key(Long userId, LocalDate date, Long accountId,
+                      Transaction.TransactionType type, Transaction.Category category) implements Comparable<Key> {
+
+        private static final Comparator<Key> ORDER = Comparator.comparing(Key::userId)
+                .thenComparing(Key::date)
+                .thenComparing(Key::accountId)
+                .thenComparing(Key::type)
+                .thenComparing(Key::category);
+
+        @Override
+        public int compareTo(Key other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    /**
+     * Amount and count to add to (or, when negative, remove from) one rollup row.
+     */
+    public record Delta(Key key, BigDecimal total, long count) {
+    }
+}
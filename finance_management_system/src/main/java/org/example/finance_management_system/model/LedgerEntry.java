@@ -0,0 +1,89 @@
+package org.example.finance_management_system.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One line of an append-only double-entry journal. Every change of an account balance is posted
+ * as a group of lines sharing a posting key whose amounts sum to zero; lines are never updated
+ * or deleted, so the ACCOUNT lines of an account always add up to its balance.
+ */
+@Entity
+@Table(name = "ledger_entries", uniqueConstraints = {
+        // Idempotency: a posting key can only ever be written once
+        @UniqueConstraint(name = "uk_ledger_posting_line", columnNames = {"posting_key", "line_no"})
+}, indexes = {
+        // Per-book history: WHERE book = ? AND book_id = ? ORDER BY created_at
+        @Index(name = "idx_ledger_book_created", columnList = "book, book_id, created_at")
+})
+@Data
+@NoArgsConstructor
+public class LedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Column(name = "posting_key", length = 100, nullable = false)
+    private String postingKey;
+
+    @NotNull
+    @Column(name = "line_no", nullable = false)
+    private Integer lineNo;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "posting_type", nullable = false)
+    private PostingType postingType;
+
+    @NotNull
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "book", nullable = false)
+    private Book book;
+
+    @NotNull
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    // Signed: positive adds to the book, negative takes from it
+    @NotNull
+    @Column(name = "amount", precision = 19, scale = 2, nullable = false)
+    private BigDecimal amount;
+
+    // Day the amount counts for in the balance history; before today for backdated transactions
+    @Column(name = "effective_date")
+    private LocalDate effectiveDate;
+
+    @Column(name = "description")
+    private String description;
+
+    @NotNull
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * What a line's book_id refers to. Only ACCOUNT lines change an Account balance; LOAN and
+     * SAVINGS lines are the other side of money entering or leaving the user's accounts, and
+     * EXTERNAL lines (book_id is the user id) the other side of income, expenses, opening
+     * balances and manual corrections.
+     */
+    public enum Book {
+        ACCOUNT, LOAN, SAVINGS, EXTERNAL
+    }
+
+    public enum PostingType {
+        TRANSFER, LOAN_DISBURSEMENT, LOAN_PAYMENT, SAVINGS_DEPOSIT, SAVINGS_WITHDRAWAL,
+        TRANSACTION, IMPORT, OPENING_BALANCE, BALANCE_ADJUSTMENT
+    }
+}
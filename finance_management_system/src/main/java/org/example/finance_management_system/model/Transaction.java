@@ -13,7 +13,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        // Backs the keyset-paginated listing: WHERE user_id = ? ORDER BY date DESC, id DESC
+        @Index(name = "idx_transactions_user_date_id", columnList = "user_id, date, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
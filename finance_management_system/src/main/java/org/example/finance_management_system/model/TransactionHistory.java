@@ -6,7 +6,12 @@ import jakarta.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transaction_history")
+@Table(name = "transaction_history", indexes = {
+        // Per-user audit listing: WHERE user_id = ? AND change_type = ? ORDER BY changed_at DESC, id DESC
+        @Index(name = "idx_history_user_type_changed", columnList = "user_id, change_type, changed_at"),
+        // History of one transaction, newest first
+        @Index(name = "idx_history_transaction_changed", columnList = "transaction_id, changed_at")
+})
 public class TransactionHistory {
 
     @Id
@@ -16,6 +21,10 @@ public class TransactionHistory {
     @Column(name = "transaction_id")
     private Long transactionId;
 
+    // Owner of the transaction; kept on the row because deleted transactions lose transaction_id
+    @Column(name = "user_id")
+    private Long userId;
+
     @Column(name = "old_value", columnDefinition = "TEXT")
     private String oldValue;
 
@@ -56,6 +65,14 @@ public class TransactionHistory {
         this.transactionId = transactionId;
     }
 
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
     public String getOldValue() {
         return oldValue;
     }
@@ -7,7 +7,11 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transfers")
+@Table(name = "transfers", indexes = {
+        // Back the per-account history: WHERE <side>_account_id = ? ORDER BY date DESC, id DESC
+        @Index(name = "idx_transfers_source_date_id", columnList = "source_account_id, date, id"),
+        @Index(name = "idx_transfers_destination_date_id", columnList = "destination_account_id, date, id")
+})
 public class Transfer {
 
     @Id
@@ -42,6 +42,10 @@ public class User {
     @NotBlank
     private String fullName;            // User's full name
 
+    // Bumped on password change or reset; tokens carrying an older version are rejected
+    @Column(name = "token_version", nullable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private int tokenVersion;           // Current JWT version
+
     // Relationship: One user can have many transactions
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Transaction> transactions = new HashSet<>();
@@ -0,0 +1,33 @@
+package org.example.finance_management_system.repository;
+
+import org.example.finance_management_system.model.AccountBalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AccountBalanceSnapshotRepository extends JpaRepository<AccountBalanceSnapshot, Long>,
+        AccountBalanceSnapshotRepositoryCustom {
+
+    // Latest checkpoint on or before a date; one index seek on uk_balance_snapshot_account_date
+    Optional<AccountBalanceSnapshot> findFirstByAccountIdAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(
+            Long accountId, LocalDate date);
+
+    // An account's first checkpoint
+    Optional<AccountBalanceSnapshot> findFirstByAccountIdOrderBySnapshotDateAsc(Long accountId);
+
+    List<AccountBalanceSnapshot> findByAccountIdAndSnapshotDateBetweenOrderBySnapshotDateAsc(
+            Long accountId, LocalDate from, LocalDate to);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AccountBalanceSnapshot s WHERE s.accountId = :accountId")
+    int deleteByAccountId(@Param("accountId") Long accountId);
+}
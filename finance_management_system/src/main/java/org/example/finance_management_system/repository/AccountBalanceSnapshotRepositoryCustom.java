@@ -0,0 +1,26 @@
+package org.example.finance_management_system.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+
+public interface AccountBalanceSnapshotRepositoryCustom {
+    /**
+     * Copy the current balance of each account into its snapshot row for the day of {@code now},
+     * creating the row if needed. One statement however many accounts are given.
+     */
+    void recordClosingBalances(Collection<Long> accountIds, LocalDateTime now);
+
+    /**
+     * Correct the checkpoints after balance changes dated before today: each change is added to
+     * every checkpoint of its account on or after its date, and the date gets a checkpoint of
+     * its own when the balance before it is known (an earlier checkpoint, or none since the
+     * account was opened). Two batched statements however many changes are given.
+     *
+     * @param changes net change per account and date
+     */
+    void applyBackdatedChanges(Map<Long, NavigableMap<LocalDate, BigDecimal>> changes, LocalDateTime now);
+}
@@ -0,0 +1,94 @@
+package org.example.finance_management_system.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * Native MySQL upsert of balance snapshots. The balance is read from accounts inside the same
+ * statement, so the snapshot matches the row the caller's UPDATE just wrote. Backdated changes
+ * shift the later checkpoints with one relative UPDATE per change.
+ */
+public class AccountBalanceSnapshotRepositoryImpl implements AccountBalanceSnapshotRepositoryCustom {
+
+    private static final String UPSERT_PREFIX = "INSERT INTO account_balance_snapshots " +
+            "(account_id, snapshot_date, balance, updated_at) " +
+            "SELECT a.id, ?, a.balance, ? FROM accounts a WHERE a.id IN (";
+
+    private static final String UPSERT_SUFFIX = ") " +
+            "ON DUPLICATE KEY UPDATE balance = VALUES(balance), updated_at = VALUES(updated_at)";
+
+    // Checkpoint for a backdated day, carrying the balance of the checkpoint before it. Without
+    // one, the balance before is only known (zero) when the account's checkpoints reach back to
+    // the day it was opened.
+    private static final String INSERT_BACKDATED_SQL = "INSERT INTO account_balance_snapshots " +
+            "(account_id, snapshot_date, balance, updated_at) " +
+            "SELECT a.id, ?, COALESCE((SELECT p.balance FROM account_balance_snapshots p " +
+            "WHERE p.account_id = a.id AND p.snapshot_date < ? ORDER BY p.snapshot_date DESC LIMIT 1), 0), ? " +
+            "FROM accounts a WHERE a.id = ? " +
+            "AND NOT EXISTS (SELECT 1 FROM account_balance_snapshots s WHERE s.account_id = a.id AND s.snapshot_date = ?) " +
+            "AND (EXISTS (SELECT 1 FROM account_balance_snapshots p WHERE p.account_id = a.id AND p.snapshot_date < ?) " +
+            "OR EXISTS (SELECT 1 FROM account_balance_snapshots f WHERE f.account_id = a.id " +
+            "AND f.snapshot_date <= CAST(a.created_at AS DATE)))";
+
+    private static final String SHIFT_SQL = "UPDATE account_balance_snapshots " +
+            "SET balance = balance + ?, updated_at = ? WHERE account_id = ? AND snapshot_date >= ?";
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void recordClosingBalances(Collection<Long> accountIds, LocalDateTime now) {
+        if (accountIds.isEmpty()) {
+            return;
+        }
+        List<Object> args = new ArrayList<>(accountIds.size() + 2);
+        args.add(now.toLocalDate());
+        args.add(now);
+        args.addAll(accountIds);
+        String placeholders = String.join(", ", Collections.nCopies(accountIds.size(), "?"));
+        jdbcTemplate.update(UPSERT_PREFIX + placeholders + UPSERT_SUFFIX, args.toArray());
+    }
+
+    @Override
+    public void applyBackdatedChanges(Map<Long, NavigableMap<LocalDate, BigDecimal>> changes, LocalDateTime now) {
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> shifts = new ArrayList<>();
+        for (Map.Entry<Long, NavigableMap<LocalDate, BigDecimal>> account : changes.entrySet()) {
+            for (Map.Entry<LocalDate, BigDecimal> change : account.getValue().entrySet()) {
+                if (change.getValue().signum() == 0) {
+                    continue;
+                }
+                LocalDate date = change.getKey();
+                inserts.add(new Object[]{date, date, now, account.getKey(), date, date});
+                shifts.add(new Object[]{change.getValue(), now, account.getKey(), date});
+            }
+        }
+        if (inserts.isEmpty()) {
+            return;
+        }
+        // New checkpoints first, in ascending date order: each starts from the uncorrected
+        // balance before it, and the shifts then add every change on or before its day
+        jdbcTemplate.batchUpdate(INSERT_BACKDATED_SQL, inserts, BATCH_SIZE, AccountBalanceSnapshotRepositoryImpl::setAll);
+        jdbcTemplate.batchUpdate(SHIFT_SQL, shifts, BATCH_SIZE, AccountBalanceSnapshotRepositoryImpl::setAll);
+    }
+
+    private static void setAll(PreparedStatement ps, Object[] args) throws SQLException {
+        for (int i = 0; i < args.length; i++) {
+            ps.setObject(i + 1, args[i]);
+        }
+    }
+}
@@ -3,12 +3,18 @@ package org.example.finance_management_system.repository;
 import org.example.finance_management_system.model.Account;
 import org.example.finance_management_system.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface AccountRepository extends JpaRepository<Account, Long> {
+public interface AccountRepository extends JpaRepository<Account, Long>, AccountRepositoryCustom {
     List<Account> findByUserId(Long userId);
 
     // Add this method to find accounts by User entity
@@ -16,4 +22,38 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
 
     boolean existsByNameAndUserId(String name, Long userId);
     List<Account> findByUserIdAndType(Long userId, Account.AccountType type);
-}
\ No newline at end of file
+
+    @Query("SELECT COALESCE(SUM(a.balance), 0) FROM Account a WHERE a.user.id = :userId")
+    BigDecimal sumBalanceByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT a.user.id FROM Account a WHERE a.id = :id")
+    Optional<Long> findOwnerIdById(@Param("id") Long id);
+
+    // Current balance with the row locked until commit, for changes computed from it
+    @Query(value = "SELECT balance FROM accounts WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<BigDecimal> findBalanceForUpdate(@Param("id") Long id);
+
+    /**
+     * Atomically add a (possibly negative) delta to an account balance in the database.
+     * Avoids the lost updates of read-modify-write on Account.balance under concurrent writers.
+     * Managed Account instances are not refreshed; do not read their balance afterwards.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = a.balance + :delta, a.updatedAt = :now WHERE a.id = :accountId")
+    int applyBalanceDelta(@Param("accountId") Long accountId,
+                          @Param("delta") BigDecimal delta,
+                          @Param("now") LocalDateTime now);
+
+    /**
+     * Like applyBalanceDelta, but only when the resulting balance stays non-negative. The check
+     * and the write are one statement, so concurrent debits cannot overdraw the account.
+     *
+     * @return 1 if applied, 0 if the account is missing or the funds are insufficient
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = a.balance + :delta, a.updatedAt = :now " +
+            "WHERE a.id = :accountId AND a.balance + :delta >= 0")
+    int applyBalanceDeltaIfCovered(@Param("accountId") Long accountId,
+                                   @Param("delta") BigDecimal delta,
+                                   @Param("now") LocalDateTime now);
+}
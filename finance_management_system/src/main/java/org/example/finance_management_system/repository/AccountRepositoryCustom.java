@@ -0,0 +1,13 @@
+package org.example.finance_management_system.repository;
+
+import org.example.finance_management_system.dto.response.NetWorthResponse;
+
+import java.time.LocalDate;
+
+public interface AccountRepositoryCustom {
+    /**
+     * Account balances by type, savings principal and accrued interest, and outstanding loan
+     * principal for a user, read in one round trip. Interest accrues up to {@code today}.
+     */
+    NetWorthResponse netWorth(Long userId, LocalDate today);
+}
@@ -0,0 +1,69 @@
+package org.example.finance_management_system.repository;
+
+import org.example.finance_management_system.dto.response.NetWorthResponse;
+import org.example.finance_management_system.model.Account;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Net worth as one UNION ALL of three aggregates, so the dashboard needs a single statement
+ * instead of loading every account, savings account and loan payment. Savings interest uses
+ * the same simple daily interest and rounding as SavingsAccountResponse.
+ */
+public class AccountRepositoryImpl implements AccountRepositoryCustom {
+
+    private static final String NET_WORTH_SQL =
+            "SELECT 'ACCOUNT' AS kind, a.type AS account_type, SUM(a.balance) AS amount, 0 AS interest " +
+            "FROM accounts a WHERE a.user_id = ? GROUP BY a.type " +
+            "UNION ALL " +
+            "SELECT 'SAVINGS', NULL, COALESCE(SUM(s.initial_deposit), 0), " +
+            "COALESCE(SUM(ROUND(s.initial_deposit * ROUND(s.interest_rate / 36500, 10), 2) " +
+            "* DATEDIFF(LEAST(?, s.maturity_date), s.start_date)), 0) " +
+            "FROM savings_accounts s WHERE s.user_id = ? AND s.status <> 'WITHDRAWN' " +
+            "UNION ALL " +
+            "SELECT 'LOAN', NULL, COALESCE(SUM(p.principal), 0), 0 " +
+            "FROM loan_payments p JOIN loan_accounts l ON l.id = p.loan_account_id " +
+            "WHERE l.user_id = ? AND l.status <> 'COMPLETED' AND p.status <> 'PAID'";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public NetWorthResponse netWorth(Long userId, LocalDate today) {
+        NetWorthResponse response = new NetWorthResponse();
+        for (Account.AccountType type : Account.AccountType.values()) {
+            response.getAccountsByType().put(type, BigDecimal.ZERO);
+        }
+
+        jdbcTemplate.query(NET_WORTH_SQL, rs -> {
+            BigDecimal amount = rs.getBigDecimal("amount");
+            switch (rs.getString("kind")) {
+                case "ACCOUNT":
+                    String type = rs.getString("account_type");
+                    if (type != null) {
+                        response.getAccountsByType().put(Account.AccountType.valueOf(type), amount);
+                    }
+                    response.setAccountsTotal(response.getAccountsTotal().add(amount));
+                    break;
+                case "SAVINGS":
+                    response.setSavingsPrincipal(amount);
+                    response.setSavingsAccruedInterest(rs.getBigDecimal("interest"));
+                    break;
+                case "LOAN":
+                    response.setLoansOutstandingPrincipal(amount);
+                    break;
+                default:
+                    break;
+            }
+        }, userId, today, userId, userId);
+
+        response.setSavingsTotal(response.getSavingsPrincipal().add(response.getSavingsAccruedInterest()));
+        response.setNetWorth(response.getAccountsTotal()
+                .add(response.getSavingsTotal())
+                .subtract(response.getLoansOutstandingPrincipal()));
+        return response;
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.finance_management_system.repository;
+
+import org.example.finance_management_system.dto.response.TransactionAggregateRow;
+import org.example.finance_management_system.model.DailyCategoryTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyCategoryTotalRepository extends JpaRepository<DailyCategoryTotal, Long>,
+        DailyCategoryTotalRepositoryCustom {
+
+    // Grouped aggregates for reports, read from the rollup: a year for one user is at most
+    // 366 days times the (account, type, category) combinations actually used
+    String AGGREGATE_PREFIX = "SELECT new org.example.finance_management_system.dto.response.TransactionAggregateRow(";
+    String AGGREGATE_SUFFIX = "d.type, d.category, SUM(d.total), SUM(d.count)) " +
+            "FROM DailyCategoryTotal d WHERE d.userId = :userId AND d.date BETWEEN :startDate AND :endDate ";
+
+    @Query(AGGREGATE_PREFIX + AGGREGATE_SUFFIX +
+            "GROUP BY d.type, d.category")
+    List<TransactionAggregateRow> aggregateByTypeAndCategory(
+            @Param("userId") Long userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    @Query(AGGREGATE_PREFIX + "extract(year from d.date), extract(month from d.date), " + AGGREGATE_SUFFIX +
+            "GROUP BY extract(year from d.date), extract(month from d.date), d.type, d.category")
+    List<TransactionAggregateRow> aggregateByMonth(
+            @Param("userId") Long userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    @Query(AGGREGATE_PREFIX + "extract(year from d.date), extract(month from d.date), extract(day from d.date), " +
+            AGGREGATE_SUFFIX +
+            "GROUP BY extract(year from d.date), extract(month from d.date), extract(day from d.date), " +
+            "d.type, d.category")
+    List<TransactionAggregateRow> aggregateByDay(
+            @Param("userId") Long userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+}
@@ -0,0 +1,20 @@
+package org.example.finance_management_system.repository;
+
+import org.example.finance_management_system.model.DailyCategoryTotal;
+
+import java.util.Collection;
+
+public interface DailyCategoryTotalRepositoryCustom {
+    /**
+     * Add each delta to its rollup row, creating the row if needed, with one batched upsert.
+     * Callers pass deltas in key order so concurrent writers lock rows in the same order.
+     * Rows left with no transactions are deleted in the same step.
+     */
+    void applyDeltas(Collection<DailyCategoryTotal.Delta> deltas);
+
+    /**
+     * Recompute the rollup from the transactions table, for one user or for everyone when
+     * userId is null.
+     */
+    int rebuild(Long userId);
+}
@@ -0,0 +1,79 @@
+package org.example.finance_management_system.repository;
+
+import org.example.finance_management_system.model.DailyCategoryTotal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Native MySQL upserts for the daily rollup; JPA has no portable "add to the existing row or
+ * insert it" statement, and a read-then-write would race with concurrent writers.
+ */
+public class DailyCategoryTotalRepositoryImpl implements DailyCategoryTotalRepositoryCustom {
+
+    private static final String UPSERT_SQL = "INSERT INTO daily_category_totals " +
+            "(user_id, account_id, date, type, category, total, txn_count) VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE total = total + VALUES(total), txn_count = txn_count + VALUES(txn_count)";
+
+    // Rows emptied by deletes and edits would otherwise stay behind as zero buckets forever
+    private static final String DELETE_EMPTY_SQL = "DELETE FROM daily_category_totals " +
+            "WHERE user_id = ? AND date = ? AND account_id = ? AND type = ? AND category = ? AND txn_count = 0";
+
+    private static final String REBUILD_SELECT = "INSERT INTO daily_category_totals " +
+            "(user_id, account_id, date, type, category, total, txn_count) " +
+            "SELECT user_id, account_id, DATE(date), type, category, SUM(amount), COUNT(*) FROM transactions ";
+
+    private static final String REBUILD_GROUP_BY = "GROUP BY user_id, account_id, DATE(date), type, category";
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void applyDeltas(Collection<DailyCategoryTotal.Delta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, new ArrayList<>(deltas), BATCH_SIZE, (ps, delta) -> {
+            ps.setLong(1, delta.key().userId());
+            ps.setLong(2, delta.key().accountId());
+            ps.setObject(3, delta.key().date());
+            ps.setString(4, delta.key().type().name());
+            ps.setString(5, delta.key().category().name());
+            ps.setBigDecimal(6, delta.total());
+            ps.setLong(7, delta.count());
+        });
+
+        // Only a row that lost transactions can have reached zero
+        List<DailyCategoryTotal.Delta> removals = new ArrayList<>();
+        for (DailyCategoryTotal.Delta delta : deltas) {
+            if (delta.count() < 0) {
+                removals.add(delta);
+            }
+        }
+        if (!removals.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_EMPTY_SQL, removals, BATCH_SIZE, (ps, delta) -> {
+                ps.setLong(1, delta.key().userId());
+                ps.setObject(2, delta.key().date());
+                ps.setLong(3, delta.key().accountId());
+                ps.setString(4, delta.key().type().name());
+                ps.setString(5, delta.key().category().name());
+            });
+        }
+    }
+
+    @Override
+    public int rebuild(Long userId) {
+        if (userId == null) {
+            jdbcTemplate.update("DELETE FROM daily_category_totals");
+            return jdbcTemplate.update(REBUILD_SELECT + "WHERE account_id IS NOT NULL " + REBUILD_GROUP_BY);
+        }
+        jdbcTemplate.update("DELETE FROM daily_category_totals WHERE user_id = ?", userId);
+        return jdbcTemplate.update(REBUILD_SELECT + "WHERE account_id IS NOT NULL AND user_id = ? " + REBUILD_GROUP_BY,
+                userId);
+    }
+}
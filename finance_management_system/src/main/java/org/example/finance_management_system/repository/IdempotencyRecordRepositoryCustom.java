@@ -0,0 +1,13 @@
+package org.example.finance_management_system.repository;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyRecordRepositoryCustom {
+    /**
+     * Insert a pending row for the key unless one already exists.
+     *
+     * @return true if this call created the row and so owns the key
+     */
+    boolean tryClaim(Long userId, String key, String requestPath, String requestHash,
+                     LocalDateTime now, LocalDateTime expiresAt);
+}
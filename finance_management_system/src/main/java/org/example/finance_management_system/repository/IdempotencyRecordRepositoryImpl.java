@@ -0,0 +1,25 @@
+package org.example.finance_management_system.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Claims go through INSERT IGNORE so that losing the race for a key is a zero row count rather
+ * than an exception that would have to be caught and translated.
+ */
+public class IdempotencyRecordRepositoryImpl implements IdempotencyRecordRepositoryCustom {
+
+    private static final String CLAIM_SQL = "INSERT IGNORE INTO idempotency_keys " +
+            "(user_id, idempotency_key, request_path, request_hash, created_at, expires_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean tryClaim(Long userId, String key, String requestPath, String requestHash,
+                            LocalDateTime now, LocalDateTime expiresAt) {
+        return jdbcTemplate.update(CLAIM_SQL, userId, key, requestPath, requestHash, now, expiresAt) == 1;
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.finance_management_system.repository;
+
+import org.example.finance_management_system.dto.response.UnpostedBalanceRow;
+import org.example.finance_management_system.model.LedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long>, LedgerEntryRepositoryCustom {
+
+    /**
+     * Which of the given posting keys have already been written. Served by uk_ledger_posting_line.
+     */
+    @Query("SELECT DISTINCT e.postingKey FROM LedgerEntry e WHERE e.postingKey IN :postingKeys")
+    List<String> findExistingPostingKeys(@Param("postingKeys") Collection<String> postingKeys);
+
+    /**
+     * Net amount posted to one book, for reconciling it against the stored balance.
+     * Served by idx_ledger_book_created.
+     */
+    @Query("SELECT COALESCE(SUM(e.amount), 0) FROM LedgerEntry e WHERE e.book = :book AND e.bookId = :bookId")
+    BigDecimal sumByBook(@Param("book") LedgerEntry.Book book, @Param("bookId") Long bookId);
+
+    /**
+     * Accounts whose balance differs from the sum of their ACCOUNT lines and that have no
+     * opening posting yet, i.e. balances from before every change was journaled.
+     */
+    @Query("SELECT new org.example.finance_management_system.dto.response.UnpostedBalanceRow(" +
+            "a.id, a.user.id, a.balance - COALESCE((SELECT SUM(e.amount) FROM LedgerEntry e " +
+            "WHERE e.book = org.example.finance_management_system.model.LedgerEntry.Book.ACCOUNT AND e.bookId = a.id), 0)) " +
+            "FROM Account a " +
+            "WHERE a.balance <> COALESCE((SELECT SUM(e.amount) FROM LedgerEntry e " +
+            "WHERE e.book = org.example.finance_management_system.model.LedgerEntry.Book.ACCOUNT AND e.bookId = a.id), 0) " +
+            "AND NOT EXISTS (SELECT o.id FROM LedgerEntry o " +
+            "WHERE o.postingKey = CONCAT('account:', CAST(a.id AS String), ':opening'))")
+    List<UnpostedBalanceRow> findUnpostedBalances();
+}
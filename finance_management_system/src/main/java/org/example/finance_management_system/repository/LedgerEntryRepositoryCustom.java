@@ -0,0 +1,12 @@
+package org.example.finance_management_system.repository;
+
+import org.example.finance_management_system.model.LedgerEntry;
+
+import java.util.List;
+
+public interface LedgerEntryRepositoryCustom {
+    /**
+     * Insert journal lines with JDBC batching. Generated ids are not written back.
+     */
+    void batchInsert(List<LedgerEntry> entries);
+}
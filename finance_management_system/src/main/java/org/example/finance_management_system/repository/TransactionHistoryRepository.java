@@ -2,6 +2,7 @@ package org.example.finance_management_system.repository;
 
 import org.example.finance_management_system.model.Transaction;
 import org.example.finance_management_system.model.TransactionHistory;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -9,10 +10,13 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface TransactionHistoryRepository extends JpaRepository<TransactionHistory, Long> {
+public interface TransactionHistoryRepository extends JpaRepository<TransactionHistory, Long>,
+        TransactionHistoryRepositoryCustom {
     /**
      * Find transaction history by transaction ID ordered by changed date descending.
      * This method will find history for transactions that still exist.
@@ -33,10 +37,42 @@ public interface TransactionHistoryRepository extends JpaRepository<TransactionH
     void deleteByTransactionId(Long transactionId);
 
     /**
-     * Find all deleted transaction history (where transactionId is null)
+     * First page of a user's history rows of one change type, newest first.
+     * Served by idx_history_user_type_changed.
      */
-    @Query("SELECT th FROM TransactionHistory th WHERE th.transactionId IS NULL ORDER BY th.changedAt DESC")
-    List<TransactionHistory> findDeletedTransactionHistory();
+    @Query("SELECT th FROM TransactionHistory th WHERE th.userId = :userId AND th.changeType = :changeType " +
+            "ORDER BY th.changedAt DESC, th.id DESC")
+    List<TransactionHistory> findFirstAuditPage(
+            @Param("userId") Long userId,
+            @Param("changeType") String changeType,
+            Pageable pageable);
+
+    /**
+     * The page strictly after the (changedAt, id) cursor of the previous page.
+     */
+    @Query("SELECT th FROM TransactionHistory th WHERE th.userId = :userId AND th.changeType = :changeType " +
+            "AND (th.changedAt < :cursorDate OR (th.changedAt = :cursorDate AND th.id < :cursorId)) " +
+            "ORDER BY th.changedAt DESC, th.id DESC")
+    List<TransactionHistory> findAuditPageAfterCursor(
+            @Param("userId") Long userId,
+            @Param("changeType") String changeType,
+            @Param("cursorDate") LocalDateTime cursorDate,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    /**
+     * One page of history rows of a change type in id order, for resumable batch jobs.
+     */
+    List<TransactionHistory> findByChangeTypeAndIdGreaterThanOrderByIdAsc(
+            String changeType, Long afterId, Pageable pageable);
+
+    /**
+     * Bulk delete the history of several transactions in one statement.
+     * Used by set-based deletes, which bypass the entity cascade.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM TransactionHistory th WHERE th.transactionId IN :transactionIds")
+    int deleteByTransactionIdIn(@Param("transactionIds") Collection<Long> transactionIds);
 }
 
 
@@ -0,0 +1,25 @@
+package org.example.finance_management_system.repository;
+
+import org.example.finance_management_system.model.TransactionHistory;
+
+import java.util.List;
+
+public interface TransactionHistoryRepositoryCustom {
+    /**
+     * Insert history records with JDBC batching. Generated ids are not written back.
+     */
+    void batchInsert(List<TransactionHistory> histories);
+
+    /**
+     * Rewrite old_value and new_value of existing history records with JDBC batching.
+     */
+    void batchUpdateValues(List<TransactionHistory> histories);
+
+    /**
+     * Fill in user_id on rows written before it existed: from the transaction when it still
+     * exists, otherwise from the user named in changed_by.
+     *
+     * @return number of rows updated
+     */
+    int backfillUserIds();
+}
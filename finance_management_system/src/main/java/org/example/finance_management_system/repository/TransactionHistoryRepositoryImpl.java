@@ -0,0 +1,71 @@
+package org.example.finance_management_system.repository;
+
+import org.example.finance_management_system.model.TransactionHistory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * JDBC-batched inserts for transaction history. transaction_history uses an IDENTITY key,
+ * which makes Hibernate insert one row per round trip; going through JdbcTemplate lets the
+ * driver send the whole batch at once (rewriteBatchedStatements on MySQL).
+ */
+public class TransactionHistoryRepositoryImpl implements TransactionHistoryRepositoryCustom {
+
+    private static final String INSERT_SQL = "INSERT INTO transaction_history " +
+            "(transaction_id, user_id, old_value, new_value, changed_at, changed_by, change_type) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_VALUES_SQL =
+            "UPDATE transaction_history SET old_value = ?, new_value = ? WHERE id = ?";
+
+    private static final String BACKFILL_FROM_TRANSACTIONS_SQL = "UPDATE transaction_history th " +
+            "JOIN transactions t ON t.id = th.transaction_id SET th.user_id = t.user_id WHERE th.user_id IS NULL";
+
+    private static final String BACKFILL_FROM_USERS_SQL = "UPDATE transaction_history th " +
+            "JOIN users u ON u.username = th.changed_by SET th.user_id = u.id WHERE th.user_id IS NULL";
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void batchInsert(List<TransactionHistory> histories) {
+        if (histories.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, histories, BATCH_SIZE, (ps, history) -> {
+            if (history.getTransactionId() != null) {
+                ps.setLong(1, history.getTransactionId());
+            } else {
+                ps.setNull(1, Types.BIGINT);
+            }
+            ps.setLong(2, history.getUserId());
+            ps.setString(3, history.getOldValue());
+            ps.setString(4, history.getNewValue());
+            ps.setObject(5, history.getChangedAt());
+            ps.setString(6, history.getChangedBy());
+            ps.setString(7, history.getChangeType());
+        });
+    }
+
+    @Override
+    public void batchUpdateValues(List<TransactionHistory> histories) {
+        if (histories.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_VALUES_SQL, histories, BATCH_SIZE, (ps, history) -> {
+            ps.setString(1, history.getOldValue());
+            ps.setString(2, history.getNewValue());
+            ps.setLong(3, history.getId());
+        });
+    }
+
+    @Override
+    public int backfillUserIds() {
+        return jdbcTemplate.update(BACKFILL_FROM_TRANSACTIONS_SQL) + jdbcTemplate.update(BACKFILL_FROM_USERS_SQL);
+    }
+}
@@ -1,18 +1,39 @@
 package org.example.finance_management_system.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.example.finance_management_system.dto.response.TransactionResponse;
 import org.example.finance_management_system.model.Account;
 import org.example.finance_management_system.model.Transaction;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionRepositoryCustom {
+
+    // Builds TransactionResponse rows in the same SELECT as the transaction, joining user
+    // and account up front instead of lazily loading them per row. Argument order must
+    // match the TransactionResponse all-args constructor.
+    String RESPONSE_PROJECTION = "SELECT new org.example.finance_management_system.dto.response.TransactionResponse(" +
+            "t.id, t.description, t.amount, t.type, t.category, t.date, u.username, " +
+            "a.id, a.name, a.type, COALESCE(t.notes, '')) " +
+            "FROM Transaction t JOIN t.user u LEFT JOIN t.account a ";
+
     List<Transaction> findByUserId(Long userId);
 
     List<Transaction> findByUserIdAndDateBetween(
@@ -24,19 +45,34 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId AND t.category = :category")
     List<Transaction> findByUserIdAndCategory(Long userId, Transaction.Category category);
 
-    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.user.id = :userId AND t.category = :category AND t.type = 'EXPENSE' AND t.date BETWEEN :startDate AND :endDate")
-    BigDecimal sumExpensesByUserCategoryAndDateRange(
+    // Expense and type sums are served by the daily_category_totals rollup, which only has
+    // day resolution: the range covers the whole days of startDate through endDate
+    @Query("SELECT COALESCE(SUM(d.total), 0) FROM DailyCategoryTotal d WHERE d.userId = :userId " +
+            "AND d.category = :category AND d.type = 'EXPENSE' AND d.date BETWEEN :startDate AND :endDate")
+    BigDecimal sumDailyExpensesByUserCategoryAndDayRange(
             @Param("userId") Long userId,
             @Param("category") Transaction.Category category,
-            @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate);
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
 
-    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.user.id = :userId AND t.type = :type AND t.date BETWEEN :startDate AND :endDate")
-    BigDecimal sumExpensesByUserAndDateRange(
+    @Query("SELECT COALESCE(SUM(d.total), 0) FROM DailyCategoryTotal d WHERE d.userId = :userId " +
+            "AND d.type = :type AND d.date BETWEEN :startDate AND :endDate")
+    BigDecimal sumDailyTotalsByUserTypeAndDayRange(
             @Param("userId") Long userId,
             @Param("type") Transaction.TransactionType type,
-            @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate);
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    default BigDecimal sumExpensesByUserCategoryAndDateRange(
+            Long userId, Transaction.Category category, LocalDateTime startDate, LocalDateTime endDate) {
+        return sumDailyExpensesByUserCategoryAndDayRange(
+                userId, category, startDate.toLocalDate(), endDate.toLocalDate());
+    }
+
+    default BigDecimal sumExpensesByUserAndDateRange(
+            Long userId, Transaction.TransactionType type, LocalDateTime startDate, LocalDateTime endDate) {
+        return sumDailyTotalsByUserTypeAndDayRange(userId, type, startDate.toLocalDate(), endDate.toLocalDate());
+    }
 
     // Add this method to find transactions by account
     List<Transaction> findByAccount(Account account);
@@ -44,4 +80,73 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     // Add this method to find transactions by accountId
     @Query("SELECT t FROM Transaction t WHERE t.account.id = :accountId")
     List<Transaction> findByAccountId(@Param("accountId") Long accountId);
+
+    @Query(RESPONSE_PROJECTION + "WHERE u.id = :userId")
+    List<TransactionResponse> findResponsesByUserId(@Param("userId") Long userId);
+
+    @Query(RESPONSE_PROJECTION + "WHERE u.id = :userId AND t.date BETWEEN :startDate AND :endDate")
+    List<TransactionResponse> findResponsesByUserIdAndDateBetween(
+            @Param("userId") Long userId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+
+    @Query(RESPONSE_PROJECTION + "WHERE t.id IN :ids")
+    List<TransactionResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(RESPONSE_PROJECTION + "WHERE a.id = :accountId")
+    List<TransactionResponse> findResponsesByAccountId(@Param("accountId") Long accountId);
+
+    // Keyset pagination: first page of a user's transactions, newest first.
+    // Served by idx_transactions_user_date_id so cost does not grow with history size.
+    @Query(RESPONSE_PROJECTION + "WHERE u.id = :userId " +
+            "AND (:type IS NULL OR t.type = :type) " +
+            "AND (:category IS NULL OR t.category = :category) " +
+            "AND (:accountId IS NULL OR a.id = :accountId) " +
+            "ORDER BY t.date DESC, t.id DESC")
+    List<TransactionResponse> findFirstPageByUserId(
+            @Param("userId") Long userId,
+            @Param("type") Transaction.TransactionType type,
+            @Param("category") Transaction.Category category,
+            @Param("accountId") Long accountId,
+            Pageable pageable);
+
+    // Keyset pagination: the page strictly after the (date, id) cursor of the previous page
+    @Query(RESPONSE_PROJECTION + "WHERE u.id = :userId " +
+            "AND (:type IS NULL OR t.type = :type) " +
+            "AND (:category IS NULL OR t.category = :category) " +
+            "AND (:accountId IS NULL OR a.id = :accountId) " +
+            "AND (t.date < :cursorDate OR (t.date = :cursorDate AND t.id < :cursorId)) " +
+            "ORDER BY t.date DESC, t.id DESC")
+    List<TransactionResponse> findPageByUserIdAfterCursor(
+            @Param("userId") Long userId,
+            @Param("type") Transaction.TransactionType type,
+            @Param("category") Transaction.Category category,
+            @Param("accountId") Long accountId,
+            @Param("cursorDate") LocalDateTime cursorDate,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    // Row-by-row cursor for exports. A fetch size of Integer.MIN_VALUE makes MySQL
+    // Connector/J stream the result set instead of buffering it client side.
+    // Must be consumed inside a transaction and closed by the caller.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(RESPONSE_PROJECTION + "WHERE u.id = :userId ORDER BY t.date DESC, t.id DESC")
+    Stream<TransactionResponse> streamByUserId(@Param("userId") Long userId);
+
+    // Lock the transaction row before reverting its balance effect so two concurrent
+    // edits of the same transaction cannot both revert the original amount
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Transaction t WHERE t.id = :id")
+    Optional<Transaction> findByIdForUpdate(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Transaction t WHERE t.id IN :ids")
+    List<Transaction> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Transaction t WHERE t.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,13 @@
+package org.example.finance_management_system.repository;
+
+import org.example.finance_management_system.dto.request.TransactionRequest;
+
+import java.util.List;
+
+public interface TransactionRepositoryCustom {
+    /**
+     * Insert already validated transactions for a user with JDBC batching.
+     * Balances are not touched; the caller applies the net effect per account.
+     */
+    void batchInsert(Long userId, List<TransactionRequest> rows);
+}
@@ -0,0 +1,40 @@
+package org.example.finance_management_system.repository;
+
+import org.example.finance_management_system.dto.request.TransactionRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * JDBC-batched inserts for bulk imports; the IDENTITY key on transactions keeps
+ * Hibernate from batching, so rows go through JdbcTemplate instead.
+ */
+public class TransactionRepositoryImpl implements TransactionRepositoryCustom {
+
+    private static final String INSERT_SQL = "INSERT INTO transactions " +
+            "(account_id, user_id, amount, type, category, description, date, notes) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void batchInsert(Long userId, List<TransactionRequest> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, BATCH_SIZE, (ps, row) -> {
+            ps.setLong(1, row.getAccountId());
+            ps.setLong(2, userId);
+            ps.setBigDecimal(3, row.getAmount());
+            ps.setString(4, row.getType().name());
+            ps.setString(5, row.getCategory().name());
+            ps.setString(6, row.getDescription());
+            ps.setObject(7, row.getDate());
+            ps.setString(8, row.getNotes() != null ? row.getNotes() : "");
+        });
+    }
+}
@@ -3,30 +3,60 @@ package org.example.finance_management_system.repository;
 import org.example.finance_management_system.model.Account;
 import org.example.finance_management_system.model.Transfer;
 import org.example.finance_management_system.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface TransferRepository extends JpaRepository<Transfer, Long> {
+
+    // Both accounts are fetched in the same SELECT so TransferResponse.fromEntity does not
+    // load them per row
+    String FETCH_ACCOUNTS = "SELECT t FROM Transfer t JOIN FETCH t.sourceAccount s JOIN FETCH t.destinationAccount d ";
+
+    String NEWEST_FIRST = " ORDER BY t.date DESC, t.id DESC";
+
+    String BEFORE_CURSOR = " AND (t.date < :cursorDate OR (t.date = :cursorDate AND t.id < :cursorId))";
+
     List<Transfer> findByUser(User user);
     List<Transfer> findBySourceAccount(Account account);
     List<Transfer> findByDestinationAccount(Account account);
     // Add the missing methods
     List<Transfer> findByUserOrderByDateDesc(User user);
 
-    @Query("SELECT t FROM Transfer t WHERE t.sourceAccount.id = :accountId OR t.destinationAccount.id = :accountId ORDER BY t.date DESC")
-    List<Transfer> findBySourceAccountIdOrDestinationAccountId(@Param("accountId") Long accountId);
-
     // Add method to find transfers by user ID ordered by date
     @Query("SELECT t FROM Transfer t WHERE t.user.id = :userId ORDER BY t.date DESC")
     List<Transfer> findByUserIdOrderByDateDesc(@Param("userId") Long userId);
 
     // Make sure this method exists for checking transfers before account deletion
     List<Transfer> findBySourceAccountOrDestinationAccount(Account sourceAccount, Account destinationAccount);
+
+    // One side of an account's transfer history, served by idx_transfers_source_date_id /
+    // idx_transfers_destination_date_id. An OR over both columns cannot use either index.
+    @Query(FETCH_ACCOUNTS + "WHERE s.id = :accountId" + NEWEST_FIRST)
+    List<Transfer> findOutgoingByAccountId(@Param("accountId") Long accountId, Pageable pageable);
+
+    @Query(FETCH_ACCOUNTS + "WHERE s.id = :accountId" + BEFORE_CURSOR + NEWEST_FIRST)
+    List<Transfer> findOutgoingByAccountIdAfterCursor(
+            @Param("accountId") Long accountId,
+            @Param("cursorDate") LocalDateTime cursorDate,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    @Query(FETCH_ACCOUNTS + "WHERE d.id = :accountId" + NEWEST_FIRST)
+    List<Transfer> findIncomingByAccountId(@Param("accountId") Long accountId, Pageable pageable);
+
+    @Query(FETCH_ACCOUNTS + "WHERE d.id = :accountId" + BEFORE_CURSOR + NEWEST_FIRST)
+    List<Transfer> findIncomingByAccountIdAfterCursor(
+            @Param("accountId") Long accountId,
+            @Param("cursorDate") LocalDateTime cursorDate,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
 }
 
 
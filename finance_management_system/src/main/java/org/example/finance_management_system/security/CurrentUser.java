@@ -0,0 +1,43 @@
+package org.example.finance_management_system.security;
+
+import org.example.finance_management_system.model.User;
+
+import java.util.function.Function;
+
+/**
+ * The authenticated user of the current request, injected into controller methods by
+ * {@link CurrentUserArgumentResolver}. Carries only what the JWT already provides; the
+ * {@link User} entity is available as an unloaded reference for setting foreign keys.
+ */
+public final class CurrentUser {
+
+    private final Long id;
+    private final String username;
+    private final Function<Long, User> referenceFactory;
+    private User reference;
+
+    CurrentUser(Long id, String username, Function<Long, User> referenceFactory) {
+        this.id = id;
+        this.username = username;
+        this.referenceFactory = referenceFactory;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * JPA reference to the user row. No SELECT is issued unless a field other than the id is
+     * read, so assigning it as the owner of a new entity costs no query.
+     */
+    public User reference() {
+        if (reference == null) {
+            reference = referenceFactory.apply(id);
+        }
+        return reference;
+    }
+}
@@ -6,6 +6,7 @@ import org.example.finance_management_system.security.services.UserDetailsServic
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -36,6 +37,10 @@ public class WebSecurityConfig {
     @Autowired
     private AuthEntryPointJwt unauthorizedHandler;
 
+    // Raising the strength takes effect for existing users on their next successful login
+    @Value("${security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+
     @Bean
     public AuthTokenFilter authenticationJwtTokenFilter() {
         return new AuthTokenFilter();
@@ -46,6 +51,8 @@ public class WebSecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // Re-hashes the password on login when its stored cost is below bcryptStrength
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
@@ -56,7 +63,7 @@ public class WebSecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
@@ -73,6 +80,8 @@ public class WebSecurityConfig {
                                 // Allow public endpoints without authentication (both with and without /api prefix)
                                 .requestMatchers("/auth/**", "/api/auth/**").permitAll()
                                 .requestMatchers("/test/**", "/api/test/**").permitAll()
+                                // Actuator is served on management.server.port only
+                                .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
                                 // Allow OPTIONS requests for CORS preflight
                                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                                 // Require authentication for all other requests
@@ -1,5 +1,9 @@
 package org.example.finance_management_system.security.jwt;
 
+import io.jsonwebtoken.Claims;
+import org.example.finance_management_system.logging.AccessLogFilter;
+import org.example.finance_management_system.security.services.TokenVersionService;
+import org.example.finance_management_system.security.services.UserDetailsImpl;
 import org.example.finance_management_system.security.services.UserDetailsServiceImpl;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -10,7 +14,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -24,6 +27,9 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
     @Override
@@ -31,20 +37,31 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            // Parsed and verified once; the claims are reused for everything below
+            Claims claims = jwt != null ? jwtUtils.parseClaims(jwt) : null;
+            if (claims != null) {
+                // The principal comes from the verified claims, so no users query is needed
+                UserDetailsImpl userDetails = jwtUtils.getUserDetailsFromClaims(claims);
+                if (userDetails == null) {
+                    // Token issued before the claims were added; valid until it expires
+                    userDetails = (UserDetailsImpl) userDetailsService.loadUserByUsername(claims.getSubject());
+                }
+                String username = userDetails.getUsername();
 
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(userDetails, null,
-                                userDetails.getAuthorities());
+                if (tokenVersionService.isCurrent(userDetails.getId(), userDetails.getTokenVersion())) {
+                    UsernamePasswordAuthenticationToken authentication =
+                            new UsernamePasswordAuthenticationToken(userDetails, null,
+                                    userDetails.getAuthorities());
 
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                // CRITICAL FIX: Set authentication in security context
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                logger.debug("Set authentication for user: {}", username);
+                    // CRITICAL FIX: Set authentication in security context
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    request.setAttribute(AccessLogFilter.USER_ID_ATTRIBUTE, userDetails.getId());
+                    logger.debug("Set authentication for user: {}", username);
+                } else {
+                    logger.debug("Rejected revoked token for user: {}", username);
+                }
             }
         } catch (Exception e) {
             logger.error("Cannot set user authentication: {}", e.getMessage());
@@ -1,15 +1,23 @@
 package org.example.finance_management_system.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.example.finance_management_system.security.services.UserDetailsImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
-import java.security.SignatureException;
+import javax.crypto.SecretKey;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 @Component
 public class JwtUtils {
@@ -21,35 +29,126 @@ public class JwtUtils {
     @Value("${jwt.expiration}")
     private int jwtExpirationMs;
 
+    // Number of recently verified tokens whose claims are kept to skip HMAC verification
+    @Value("${jwt.verified-cache-size:1024}")
+    private int verifiedCacheSize;
+
+    // Claims that let the filter rebuild the principal without loading the user
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_EMAIL = "email";
+    static final String CLAIM_FULL_NAME = "name";
+    static final String CLAIM_ROLES = "roles";
+    static final String CLAIM_TOKEN_VERSION = "ver";
+
+    // Decoded once at startup; the parser is immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    // Bounded token -> verified claims cache. Lock-free reads and no monitors, so request
+    // threads (including virtual threads) never block each other or pin their carrier here.
+    private Cache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        // jwt.secret is base64, the same encoding the old string-keyed API assumed
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .build();
+    }
+
     public String generateJwtToken(Authentication authentication) {
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
 
+        List<String> roles = new ArrayList<>();
+        for (GrantedAuthority authority : userPrincipal.getAuthorities()) {
+            roles.add(authority.getAuthority());
+        }
+
         return Jwts.builder()
                 .setSubject((userPrincipal.getUsername()))
+                .claim(CLAIM_USER_ID, userPrincipal.getId())
+                .claim(CLAIM_EMAIL, userPrincipal.getEmail())
+                .claim(CLAIM_FULL_NAME, userPrincipal.getFullName())
+                .claim(CLAIM_ROLES, roles)
+                .claim(CLAIM_TOKEN_VERSION, userPrincipal.getTokenVersion())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(SignatureAlgorithm.HS512, jwtSecret)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
-    }
+    /**
+     * Verify a token and return its claims, or null when it is invalid or expired.
+     * A token verified recently is served from the cache as long as it has not expired since.
+     */
+    public Claims parseClaims(String authToken) {
+        Claims claims = verifiedTokens.getIfPresent(authToken);
+        if (claims != null) {
+            if (claims.getExpiration() == null || claims.getExpiration().after(new Date())) {
+                return claims;
+            }
+            verifiedTokens.invalidate(authToken);
+            logger.error("JWT token is expired: {}", claims.getExpiration());
+            return null;
+        }
 
-    public boolean validateJwtToken(String authToken) {
         try {
-            Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-            return true;
+            claims = jwtParser.parseClaimsJws(authToken).getBody();
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
+            return null;
         } catch (ExpiredJwtException e) {
             logger.error("JWT token is expired: {}", e.getMessage());
+            return null;
         } catch (UnsupportedJwtException e) {
             logger.error("JWT token is unsupported: {}", e.getMessage());
+            return null;
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
+            return null;
+        } catch (JwtException e) {
+            logger.error("JWT signature is invalid: {}", e.getMessage());
+            return null;
         }
 
-        return false;
+        verifiedTokens.put(authToken, claims);
+        return claims;
+    }
+
+    public String getUserNameFromJwtToken(String token) {
+        Claims claims = parseClaims(token);
+        return claims != null ? claims.getSubject() : null;
+    }
+
+    /**
+     * Build the principal from verified claims, or return null for tokens issued before the
+     * claims were added; those still need the user to be loaded by username.
+     */
+    public UserDetailsImpl getUserDetailsFromClaims(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        if (userId == null) {
+            return null;
+        }
+        Number tokenVersion = claims.get(CLAIM_TOKEN_VERSION, Number.class);
+        List<?> roles = claims.get(CLAIM_ROLES, List.class);
+        List<String> roleNames = new ArrayList<>();
+        if (roles != null) {
+            for (Object role : roles) {
+                roleNames.add(String.valueOf(role));
+            }
+        }
+        return UserDetailsImpl.fromClaims(
+                userId.longValue(),
+                claims.getSubject(),
+                claims.get(CLAIM_EMAIL, String.class),
+                claims.get(CLAIM_FULL_NAME, String.class),
+                roleNames,
+                tokenVersion != null ? tokenVersion.intValue() : 0);
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        return parseClaims(authToken) != null;
     }
 }
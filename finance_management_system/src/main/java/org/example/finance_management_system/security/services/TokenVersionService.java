@@ -0,0 +1,69 @@
+package org.example.finance_management_system.security.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.example.finance_management_system.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Optional revocation check for stateless JWTs. Each token carries the user's token version;
+ * bumping the version (on password change or reset) invalidates older tokens. Current versions
+ * are held in a bounded cache for a short TTL so the check costs at most one query per user per
+ * TTL, and memory stays flat however many users sign in.
+ */
+@Service
+public class TokenVersionService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.version-check.enabled:false}")
+    private boolean enabled;
+
+    @Value("${jwt.version-check.ttl-ms:30000}")
+    private long ttlMs;
+
+    @Value("${jwt.version-check.maximum-size:10000}")
+    private long maximumSize;
+
+    // user id -> current token version
+    private Cache<Long, Integer> versions;
+
+    @PostConstruct
+    void init() {
+        versions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, "token-versions");
+    }
+
+    /**
+     * Whether a token issued with {@code tokenVersion} is still valid for the user. Always true
+     * when the check is disabled; false when the user no longer exists.
+     */
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        if (!enabled) {
+            return true;
+        }
+        // Unknown users return null from the loader and are not cached
+        Integer current = versions.get(userId, id -> userRepository.findTokenVersionById(id).orElse(null));
+        return current != null && current == tokenVersion;
+    }
+
+    // Called after a version bump so this node rejects old tokens immediately
+    public void evict(Long userId) {
+        versions.invalidate(userId);
+    }
+}
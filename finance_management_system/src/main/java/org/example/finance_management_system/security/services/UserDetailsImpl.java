@@ -7,8 +7,10 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.example.finance_management_system.model.User;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 
 @AllArgsConstructor
@@ -31,6 +33,10 @@ public class UserDetailsImpl implements UserDetails {
 
     private Collection<? extends GrantedAuthority> authorities;
 
+    // Version of the user's tokens at the time this principal was built
+    @Getter
+    private int tokenVersion;
+
     public static UserDetailsImpl build(User user) {
         // For simplicity, every user has a USER role
         GrantedAuthority authority = new SimpleGrantedAuthority("ROLE_USER");
@@ -41,7 +47,21 @@ public class UserDetailsImpl implements UserDetails {
                 user.getEmail(),
                 user.getPassword(),
                 user.getFullName(),
-                Collections.singletonList(authority));
+                Collections.singletonList(authority),
+                user.getTokenVersion());
+    }
+
+    /**
+     * Principal rebuilt from the claims of a verified JWT, without loading the user.
+     * There is no password on it; it cannot be used to authenticate again.
+     */
+    public static UserDetailsImpl fromClaims(Long id, String username, String email, String fullName,
+                                             Collection<String> roles, int tokenVersion) {
+        List<GrantedAuthority> authorities = new ArrayList<>(roles.size());
+        for (String role : roles) {
+            authorities.add(new SimpleGrantedAuthority(role));
+        }
+        return new UserDetailsImpl(id, username, email, null, fullName, authorities, tokenVersion);
     }
 
     @Override
@@ -0,0 +1,91 @@
+package org.example.finance_management_system.service;
+
+import org.example.finance_management_system.dto.request.AccountRequest;
+import org.example.finance_management_system.exception.ResourceNotFoundException;
+import org.example.finance_management_system.model.Account;
+import org.example.finance_management_system.model.LedgerEntry;
+import org.example.finance_management_system.model.User;
+import org.example.finance_management_system.repository.AccountRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Creates and edits accounts. The balance given on creation is posted to the ledger as the
+ * account's opening balance, and a balance typed in on edit as a correction against the current
+ * one, so the ledger keeps adding up to every balance.
+ */
+@Service
+public class AccountService {
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private BalanceHistoryService balanceHistoryService;
+
+    @Transactional
+    public Account createAccount(AccountRequest request, User user) {
+        Account account = new Account();
+        account.setName(request.getName());
+        account.setType(request.getType());
+        account.setBalance(BigDecimal.ZERO);
+        account.setAccountNumber(request.getAccountNumber());
+        account.setDescription(request.getDescription());
+        account.setUser(user);
+        accountRepository.save(account);
+
+        // A credit card may be opened with a negative balance
+        LedgerService.Posting opening = new LedgerService.Posting(LedgerService.openingKey(account.getId()),
+                LedgerEntry.PostingType.OPENING_BALANCE, user.getId(), "Opening balance")
+                .allowOverdraft()
+                .external(account.getId(), request.getBalance());
+        if (opening.isEmpty()) {
+            // Nothing to post, but the first checkpoint still marks the day the account opened
+            balanceHistoryService.recordClosingBalances(List.of(account.getId()));
+        } else {
+            ledgerService.post(opening);
+        }
+
+        // Matches the row the posting just updated, which stays locked until commit
+        account.setBalance(request.getBalance());
+        return account;
+    }
+
+    /**
+     * Update an account's details. A balance different from the current one is posted as a
+     * correction of the difference, computed under a row lock so a concurrent transaction
+     * cannot slip in between.
+     */
+    @Transactional
+    public Account updateAccount(Account account, AccountRequest request) {
+        Long id = account.getId();
+        BigDecimal current = accountRepository.findBalanceForUpdate(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Account", "id", id));
+
+        account.setName(request.getName());
+        account.setType(request.getType());
+        account.setAccountNumber(request.getAccountNumber());
+        account.setDescription(request.getDescription());
+        // The loaded balance may be older than the locked one; the row is written from this entity
+        account.setBalance(current);
+        account = accountRepository.save(account);
+
+        BigDecimal correction = request.getBalance().subtract(current);
+        if (correction.signum() != 0) {
+            ledgerService.post(new LedgerService.Posting("account:" + id + ":adjusted:" + UUID.randomUUID(),
+                    LedgerEntry.PostingType.BALANCE_ADJUSTMENT, account.getUser().getId(), "Manual balance correction")
+                    .allowOverdraft()
+                    .external(id, correction));
+            account.setBalance(request.getBalance());
+        }
+        return account;
+    }
+}
@@ -0,0 +1,131 @@
+package org.example.finance_management_system.service;
+
+import org.example.finance_management_system.dto.response.BalancePointResponse;
+import org.example.finance_management_system.exception.BadRequestException;
+import org.example.finance_management_system.model.Account;
+import org.example.finance_management_system.model.AccountBalanceSnapshot;
+import org.example.finance_management_system.repository.AccountBalanceSnapshotRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Point-in-time account balances. Every balance write upserts the account's closing balance
+ * for the day into account_balance_snapshots, and a write dated before today also shifts every
+ * checkpoint from its date on; a balance on a date is the latest checkpoint on or before it.
+ * Before an account's first checkpoint the balance is zero when the checkpoints go back to the
+ * day the account was opened, and unknown (null) for history from before snapshots were kept.
+ * A series costs at most three queries whatever the number of transactions.
+ */
+@Service
+public class BalanceHistoryService {
+
+    // Upper bound on points in one series
+    public static final int MAX_POINTS = 1000;
+
+    @Autowired
+    private AccountBalanceSnapshotRepository snapshotRepository;
+
+    /**
+     * Record today's closing balance of the given accounts. Call after their balances changed,
+     * in the same database transaction.
+     */
+    public void recordClosingBalances(Collection<Long> accountIds) {
+        snapshotRepository.recordClosingBalances(accountIds, LocalDateTime.now());
+    }
+
+    /**
+     * Correct the checkpoints for balance changes dated before today, given as the net change
+     * per account and day. Call before {@link #recordClosingBalances} in the same transaction.
+     */
+    public void recordBackdatedChanges(Map<Long, NavigableMap<LocalDate, BigDecimal>> changes) {
+        if (!changes.isEmpty()) {
+            snapshotRepository.applyBackdatedChanges(changes, LocalDateTime.now());
+        }
+    }
+
+    // Drop the checkpoints of a deleted account
+    public void deleteHistory(Long accountId) {
+        snapshotRepository.deleteByAccountId(accountId);
+    }
+
+    @Transactional(readOnly = true)
+    public BalancePointResponse balanceAt(Account account, LocalDate date) {
+        return series(account, date, date, Step.DAY).get(0);
+    }
+
+    /**
+     * Closing balances from {@code from} to {@code to} inclusive, one point per step. Points
+     * whose balance is unknown carry a null balance.
+     */
+    @Transactional(readOnly = true)
+    public List<BalancePointResponse> series(Account account, LocalDate from, LocalDate to, Step step) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = step.next(date)) {
+            if (dates.size() == MAX_POINTS) {
+                throw new BadRequestException("A balance series can have at most " + MAX_POINTS + " points");
+            }
+            dates.add(date);
+        }
+
+        // Checkpoints covering the range: the one in force at 'from' and every one inside it
+        NavigableMap<LocalDate, BigDecimal> checkpoints = new TreeMap<>();
+        snapshotRepository.findFirstByAccountIdAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(account.getId(), from)
+                .ifPresent(snapshot -> checkpoints.put(snapshot.getSnapshotDate(), snapshot.getBalance()));
+        for (AccountBalanceSnapshot snapshot :
+                snapshotRepository.findByAccountIdAndSnapshotDateBetweenOrderBySnapshotDateAsc(account.getId(), from, to)) {
+            checkpoints.put(snapshot.getSnapshotDate(), snapshot.getBalance());
+        }
+
+        // Only needed when some dates fall before the first checkpoint
+        BigDecimal beforeFirst = null;
+        if (checkpoints.isEmpty() || checkpoints.firstKey().isAfter(from)) {
+            LocalDate first = snapshotRepository.findFirstByAccountIdOrderBySnapshotDateAsc(account.getId())
+                    .map(AccountBalanceSnapshot::getSnapshotDate)
+                    .orElse(null);
+            LocalDate opened = account.getCreatedAt() != null ? account.getCreatedAt().toLocalDate() : null;
+            if (first == null) {
+                // No write since checkpoints were introduced: only the current balance is known
+                checkpoints.put(LocalDate.now(), account.getBalance());
+            } else if (opened != null && !first.isAfter(opened)) {
+                beforeFirst = BigDecimal.ZERO;
+            }
+        }
+
+        List<BalancePointResponse> points = new ArrayList<>(dates.size());
+        for (LocalDate date : dates) {
+            Map.Entry<LocalDate, BigDecimal> checkpoint = checkpoints.floorEntry(date);
+            points.add(new BalancePointResponse(date, checkpoint != null ? checkpoint.getValue() : beforeFirst));
+        }
+        return points;
+    }
+
+    public enum Step {
+        DAY, WEEK, MONTH;
+
+        LocalDate next(LocalDate date) {
+            switch (this) {
+                case WEEK:
+                    return date.plusWeeks(1);
+                case MONTH:
+                    return date.plusMonths(1);
+                case DAY:
+                default:
+                    return date.plusDays(1);
+            }
+        }
+    }
+}
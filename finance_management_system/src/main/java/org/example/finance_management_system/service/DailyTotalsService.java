@@ -0,0 +1,102 @@
+package org.example.finance_management_system.service;
+
+import org.example.finance_management_system.model.DailyCategoryTotal;
+import org.example.finance_management_system.model.Transaction;
+import org.example.finance_management_system.repository.DailyCategoryTotalRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains the daily_category_totals rollup. Every write to transactions reports its effect
+ * here; the rollup rows are upserted in the caller's database transaction when there is one,
+ * so the rollup and the raw rows commit or roll back together.
+ */
+@Service
+public class DailyTotalsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailyTotalsService.class);
+
+    @Autowired
+    private DailyCategoryTotalRepository dailyCategoryTotalRepository;
+
+    @Transactional
+    public void recordCreated(Transaction transaction) {
+        Changes changes = new Changes();
+        changes.add(transaction);
+        apply(changes);
+    }
+
+    @Transactional
+    public void recordDeleted(Transaction transaction) {
+        Changes changes = new Changes();
+        changes.remove(transaction);
+        apply(changes);
+    }
+
+    @Transactional
+    public void apply(Changes changes) {
+        dailyCategoryTotalRepository.applyDeltas(changes.deltas());
+    }
+
+    /**
+     * Recompute the rollup from the transactions table, for one user or everyone when userId is null.
+     */
+    @Transactional
+    public int rebuild(Long userId) {
+        int rows = dailyCategoryTotalRepository.rebuild(userId);
+        logger.info("Rebuilt daily_category_totals{}: {} rows", userId == null ? "" : " for user " + userId, rows);
+        return rows;
+    }
+
+    public boolean isEmpty() {
+        return dailyCategoryTotalRepository.count() == 0;
+    }
+
+    /**
+     * Accumulates the rollup effect of several transaction writes so they can be applied with
+     * one batched upsert. Entries are kept in key order, which is also the row lock order.
+     */
+    public static class Changes {
+        private final Map<DailyCategoryTotal.Key, BigDecimal> totals = new TreeMap<>();
+        private final Map<DailyCategoryTotal.Key, Long> counts = new TreeMap<>();
+
+        public void add(Transaction transaction) {
+            add(transaction.getUser().getId(), transaction.getAccount().getId(), transaction.getDate(),
+                    transaction.getType(), transaction.getCategory(), transaction.getAmount(), 1);
+        }
+
+        public void remove(Transaction transaction) {
+            add(transaction.getUser().getId(), transaction.getAccount().getId(), transaction.getDate(),
+                    transaction.getType(), transaction.getCategory(), transaction.getAmount().negate(), -1);
+        }
+
+        public void add(Long userId, Long accountId, LocalDateTime date, Transaction.TransactionType type,
+                        Transaction.Category category, BigDecimal amount, long count) {
+            DailyCategoryTotal.Key key = new DailyCategoryTotal.Key(userId, date.toLocalDate(), accountId, type, category);
+            totals.merge(key, amount, BigDecimal::add);
+            counts.merge(key, count, Long::sum);
+        }
+
+        List<DailyCategoryTotal.Delta> deltas() {
+            List<DailyCategoryTotal.Delta> deltas = new ArrayList<>(totals.size());
+            for (Map.Entry<DailyCategoryTotal.Key, BigDecimal> entry : totals.entrySet()) {
+                long count = counts.get(entry.getKey());
+                // An update that leaves a row unchanged (e.g. only the description edited) is skipped
+                if (count != 0 || entry.getValue().signum() != 0) {
+                    deltas.add(new DailyCategoryTotal.Delta(entry.getKey(), entry.getValue(), count));
+                }
+            }
+            return deltas;
+        }
+    }
+}
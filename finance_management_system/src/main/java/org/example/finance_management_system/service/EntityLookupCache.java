@@ -0,0 +1,104 @@
+package org.example.finance_management_system.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.example.finance_management_system.exception.ResourceNotFoundException;
+import org.example.finance_management_system.model.Account;
+import org.example.finance_management_system.model.User;
+import org.example.finance_management_system.repository.AccountRepository;
+import org.example.finance_management_system.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Bounded cache of the facts ownership checks need: which user owns an account, and whether a
+ * user exists. Entries expire after a fixed time and the cache never grows past its maximum size.
+ * Callers that only attach a user or account to a new row get a JPA reference instead of a loaded
+ * entity, so the check and the attach cost no query on a cache hit.
+ */
+@Service
+public class EntityLookupCache {
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${cache.entities.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${cache.entities.expire-after-write-ms:600000}")
+    private long expireAfterWriteMs;
+
+    // account id -> owning user id
+    private Cache<Long, Long> accountOwners;
+
+    // user id -> username
+    private Cache<Long, String> usernames;
+
+    @PostConstruct
+    void init() {
+        accountOwners = newCache();
+        usernames = newCache();
+        // Exposes size, hits, misses and evictions as cache.* meters
+        CaffeineCacheMetrics.monitor(meterRegistry, accountOwners, "account-owners");
+        CaffeineCacheMetrics.monitor(meterRegistry, usernames, "usernames");
+    }
+
+    private <V> Cache<Long, V> newCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterWriteMs))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Whether the account belongs to the user.
+     *
+     * @throws ResourceNotFoundException if the account does not exist
+     */
+    public boolean isAccountOwnedBy(Long accountId, Long userId) {
+        // Misses for unknown ids return null from the loader and are not cached
+        Long ownerId = accountOwners.get(accountId,
+                id -> accountRepository.findOwnerIdById(id).orElse(null));
+        if (ownerId == null) {
+            throw new ResourceNotFoundException("Account", "id", accountId);
+        }
+        return ownerId.equals(userId);
+    }
+
+    /**
+     * Reference to an existing user, suitable for setting on a new entity. Fields are only
+     * loaded if something reads them.
+     *
+     * @throws ResourceNotFoundException if the user does not exist
+     */
+    public User userReference(Long userId) {
+        String username = usernames.get(userId,
+                id -> userRepository.findUsernameById(id).orElse(null));
+        if (username == null) {
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
+        return userRepository.getReferenceById(userId);
+    }
+
+    // Reference to an account whose existence and owner have already been checked
+    public Account accountReference(Long accountId) {
+        return accountRepository.getReferenceById(accountId);
+    }
+
+    public void evictAccount(Long accountId) {
+        accountOwners.invalidate(accountId);
+    }
+}
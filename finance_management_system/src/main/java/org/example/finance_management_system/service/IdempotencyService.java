@@ -0,0 +1,140 @@
+package org.example.finance_management_system.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.example.finance_management_system.config.IdempotencyProperties;
+import org.example.finance_management_system.model.IdempotencyRecord;
+import org.example.finance_management_system.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Store of Idempotency-Key claims and the responses they produced. Completed responses are kept
+ * in a bounded in-memory cache in front of the idempotency_keys table, so a replay is usually
+ * answered from memory and otherwise costs one unique-index lookup. Both expire after the
+ * configured TTL.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private IdempotencyProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // "userId|key" -> completed response
+    private Cache<String, StoredResponse> completed;
+
+    @PostConstruct
+    void init() {
+        completed = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxCachedResponses())
+                .expireAfterWrite(Duration.ofMillis(properties.getTtlMs()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, completed, "idempotency-responses");
+    }
+
+    /**
+     * Claim a key for a new request, or find the response of the request that already used it.
+     *
+     * @param path        concrete request path the key is bound to
+     * @param requestHash hash of the query string and body, or null when the request was not hashed
+     */
+    public Claim claim(Long userId, String key, String path, String requestHash) {
+        String cacheKey = cacheKey(userId, key);
+        StoredResponse cached = completed.getIfPresent(cacheKey);
+        if (cached != null) {
+            return Claim.existing(cached, path, requestHash);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Optional<IdempotencyRecord> found = idempotencyRecordRepository.findByUserIdAndIdempotencyKey(userId, key);
+        if (found.isPresent()) {
+            IdempotencyRecord record = found.get();
+            if (record.getExpiresAt().isAfter(now)) {
+                if (record.getStatusCode() == null) {
+                    return Claim.IN_PROGRESS;
+                }
+                StoredResponse stored = new StoredResponse(record.getRequestPath(), record.getRequestHash(),
+                        record.getStatusCode(), record.getResponseBody());
+                completed.put(cacheKey, stored);
+                return Claim.existing(stored, path, requestHash);
+            }
+            // Expired but not purged yet: the key is free again
+            idempotencyRecordRepository.delete(record);
+        }
+
+        LocalDateTime expiresAt = now.plus(Duration.ofMillis(properties.getTtlMs()));
+        return idempotencyRecordRepository.tryClaim(userId, key, path, requestHash, now, expiresAt)
+                ? Claim.CLAIMED
+                : Claim.IN_PROGRESS;
+    }
+
+    /**
+     * Store the response of a claimed key so later requests with it are replayed.
+     */
+    public void complete(Long userId, String key, String path, String requestHash, int statusCode, String body) {
+        idempotencyRecordRepository.complete(userId, key, statusCode, body);
+        completed.put(cacheKey(userId, key), new StoredResponse(path, requestHash, statusCode, body));
+    }
+
+    /**
+     * Drop the claim of a request that did not produce a response worth replaying.
+     */
+    public void release(Long userId, String key) {
+        idempotencyRecordRepository.release(userId, key);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int deleted = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            logger.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    private static String cacheKey(Long userId, String key) {
+        return userId + "|" + key;
+    }
+
+    public record StoredResponse(String path, String requestHash, int statusCode, String body) {
+    }
+
+    /**
+     * Result of claiming a key. Only CLAIMED lets the request run; a stored response is replayed,
+     * and a key used for a different request or still held by a running request is rejected.
+     */
+    public record Claim(Outcome outcome, StoredResponse response) {
+
+        static final Claim CLAIMED = new Claim(Outcome.CLAIMED, null);
+        static final Claim IN_PROGRESS = new Claim(Outcome.IN_PROGRESS, null);
+
+        static Claim existing(StoredResponse response, String path, String requestHash) {
+            return response.path().equals(path) && Objects.equals(response.requestHash(), requestHash)
+                    ? new Claim(Outcome.REPLAY, response)
+                    : new Claim(Outcome.REQUEST_MISMATCH, null);
+        }
+    }
+
+    public enum Outcome {
+        CLAIMED, REPLAY, IN_PROGRESS, REQUEST_MISMATCH
+    }
+}
@@ -0,0 +1,330 @@
+package org.example.finance_management_system.service;
+
+import org.example.finance_management_system.dto.response.ReconciliationResponse;
+import org.example.finance_management_system.dto.response.UnpostedBalanceRow;
+import org.example.finance_management_system.exception.BadRequestException;
+import org.example.finance_management_system.exception.ResourceNotFoundException;
+import org.example.finance_management_system.metrics.FinanceMetrics;
+import org.example.finance_management_system.model.Account;
+import org.example.finance_management_system.model.LedgerEntry;
+import org.example.finance_management_system.repository.AccountRepository;
+import org.example.finance_management_system.repository.LedgerEntryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Single entry point for changing account balances. A posting is a set of journal lines that
+ * sum to zero, identified by an idempotency key: the lines are appended to ledger_entries and
+ * the account balances changed in the caller's database transaction, and a key that was already
+ * posted is skipped instead of applied twice. Income, expenses, imports, opening balances and
+ * manual corrections are posted against the user's EXTERNAL book, so the ACCOUNT lines of an
+ * account always sum to its balance (see {@link #reconcile}). Every line carries the day it
+ * counts for; lines dated before today also correct the account's balance history.
+ */
+@Service
+public class LedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerService.class);
+
+    static final int MAX_KEY_LENGTH = 100;
+
+    private static final int MAX_DESCRIPTION_LENGTH = 255;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private BalanceHistoryService balanceHistoryService;
+
+    @Autowired
+    private FinanceMetrics financeMetrics;
+
+    /**
+     * Post one movement.
+     *
+     * @return true if it was applied, false if its key had already been posted
+     */
+    @Transactional
+    public boolean post(Posting posting) {
+        return !postAll(List.of(posting)).isEmpty();
+    }
+
+    /**
+     * Post several movements with a fixed number of statements: one lookup of the keys already
+     * written, one batched insert of every new line and one balance UPDATE per affected account,
+     * in ascending account id order. Postings whose key was already written are skipped, so a
+     * retried batch is safe. A debit that would take an account below zero aborts the batch,
+     * unless every posting debiting that account allows overdrafts.
+     *
+     * @return the postings that were applied
+     */
+    @Transactional
+    public List<Posting> postAll(List<Posting> postings) {
+        Map<String, Posting> pending = new LinkedHashMap<>();
+        for (Posting posting : postings) {
+            posting.validate();
+            pending.putIfAbsent(posting.getKey(), posting);
+        }
+        if (pending.isEmpty()) {
+            return List.of();
+        }
+        ledgerEntryRepository.findExistingPostingKeys(pending.keySet()).forEach(pending::remove);
+        if (pending.isEmpty()) {
+            return List.of();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<LedgerEntry> entries = entries(pending.values(), now);
+        Map<Long, BigDecimal> deltas = new TreeMap<>();
+        Set<Long> guarded = new HashSet<>();
+        Map<Long, NavigableMap<LocalDate, BigDecimal>> backdated = new TreeMap<>();
+        for (Posting posting : pending.values()) {
+            for (Line line : posting.getLines()) {
+                if (line.book() != LedgerEntry.Book.ACCOUNT) {
+                    continue;
+                }
+                deltas.merge(line.bookId(), line.amount(), BigDecimal::add);
+                if (line.amount().signum() < 0 && !posting.overdraftAllowed) {
+                    guarded.add(line.bookId());
+                }
+                if (line.effectiveDate().isBefore(now.toLocalDate())) {
+                    backdated.computeIfAbsent(line.bookId(), id -> new TreeMap<>())
+                            .merge(line.effectiveDate(), line.amount(), BigDecimal::add);
+                }
+            }
+        }
+
+        // Lines go in first: a concurrent writer of the same key waits on the unique index and
+        // then fails, before it has touched any balance
+        try {
+            ledgerEntryRepository.batchInsert(entries);
+        } catch (DuplicateKeyException e) {
+            throw new BadRequestException("This operation has already been processed");
+        }
+        List<Long> updated = applyBalances(deltas, guarded, now);
+        // Earlier checkpoints first: today's is then copied from the balance as it now stands
+        balanceHistoryService.recordBackdatedChanges(backdated);
+        balanceHistoryService.recordClosingBalances(updated);
+
+        logger.debug("Posted {} ledger postings ({} lines, {} accounts)", pending.size(), entries.size(), deltas.size());
+        return new ArrayList<>(pending.values());
+    }
+
+    /**
+     * Journal the part of each account balance that predates the ledger as that account's
+     * opening balance, without changing any balance, so that every account reconciles. Accounts
+     * that already have an opening posting are left alone: a difference there is a real
+     * discrepancy, not history.
+     *
+     * @return the number of accounts backfilled
+     */
+    @Transactional
+    public int backfillOpeningBalances() {
+        List<Posting> postings = new ArrayList<>();
+        for (UnpostedBalanceRow row : ledgerEntryRepository.findUnpostedBalances()) {
+            postings.add(new Posting(openingKey(row.getAccountId()), LedgerEntry.PostingType.OPENING_BALANCE,
+                    row.getUserId(), "Opening balance").external(row.getAccountId(), row.getUnposted()));
+        }
+        ledgerEntryRepository.batchInsert(entries(postings, LocalDateTime.now()));
+        return postings.size();
+    }
+
+    /**
+     * An account's balance next to the sum of its ACCOUNT lines.
+     */
+    @Transactional(readOnly = true)
+    public ReconciliationResponse reconcile(Account account) {
+        BigDecimal posted = ledgerEntryRepository.sumByBook(LedgerEntry.Book.ACCOUNT, account.getId());
+        return new ReconciliationResponse(account.getId(), account.getBalance(), posted,
+                account.getBalance().subtract(posted));
+    }
+
+    // Posting key of an account's opening balance; one per account
+    public static String openingKey(Long accountId) {
+        return "account:" + accountId + ":opening";
+    }
+
+    private static List<LedgerEntry> entries(Collection<Posting> postings, LocalDateTime now) {
+        List<LedgerEntry> entries = new ArrayList<>();
+        for (Posting posting : postings) {
+            int lineNo = 0;
+            for (Line line : posting.getLines()) {
+                entries.add(posting.entry(++lineNo, line, now));
+            }
+        }
+        return entries;
+    }
+
+    // Guarded debits are checked in the UPDATE itself, so the funds check cannot race another writer
+    private List<Long> applyBalances(Map<Long, BigDecimal> deltas, Set<Long> guarded, LocalDateTime now) {
+        List<Long> updated = new ArrayList<>(deltas.size());
+        for (Map.Entry<Long, BigDecimal> delta : deltas.entrySet()) {
+            BigDecimal amount = delta.getValue();
+            if (amount.signum() == 0) {
+                continue;
+            }
+            if (amount.signum() < 0 && guarded.contains(delta.getKey())) {
+                if (accountRepository.applyBalanceDeltaIfCovered(delta.getKey(), amount, now) == 0) {
+                    throw new BadRequestException("Insufficient funds in the account");
+                }
+            } else if (accountRepository.applyBalanceDelta(delta.getKey(), amount, now) == 0) {
+                throw new ResourceNotFoundException("Account", "id", delta.getKey());
+            }
+            updated.add(delta.getKey());
+        }
+        financeMetrics.balanceMutated(updated.size());
+        return updated;
+    }
+
+    /**
+     * One journal line before it is written: a signed amount against a book, for a day.
+     */
+    public record Line(LedgerEntry.Book book, Long bookId, BigDecimal amount, LocalDate effectiveDate) {
+    }
+
+    /**
+     * A balanced group of lines written under one idempotency key.
+     */
+    public static class Posting {
+        private final String key;
+        private final LedgerEntry.PostingType type;
+        private final Long userId;
+        private final String description;
+        private final List<Line> lines = new ArrayList<>();
+        // Net amount per account and day entering (positive) or leaving (negative) from outside the books
+        private final Map<Long, NavigableMap<LocalDate, BigDecimal>> external = new TreeMap<>();
+        private boolean overdraftAllowed;
+
+        public Posting(String key, LedgerEntry.PostingType type, Long userId, String description) {
+            this.key = key;
+            this.type = type;
+            this.userId = userId;
+            this.description = description;
+        }
+
+        /**
+         * Move a positive amount from one book to another: a debit line and a matching credit line.
+         */
+        public Posting move(LedgerEntry.Book fromBook, Long fromId, LedgerEntry.Book toBook, Long toId,
+                            BigDecimal amount) {
+            if (amount == null || amount.signum() <= 0) {
+                throw new BadRequestException("Amount must be greater than zero");
+            }
+            LocalDate today = LocalDate.now();
+            lines.add(new Line(fromBook, fromId, amount.negate(), today));
+            lines.add(new Line(toBook, toId, amount, today));
+            return this;
+        }
+
+        /**
+         * Add a signed amount to an account against the user's EXTERNAL book, today: positive for
+         * money coming in (an opening balance, a correction upwards), negative for money going out.
+         */
+        public Posting external(Long accountId, BigDecimal signedAmount) {
+            return external(accountId, signedAmount, LocalDate.now());
+        }
+
+        /**
+         * Like {@link #external(Long, BigDecimal)} for an amount that counts on a given day, such
+         * as a transaction's date. Amounts for the same account and day are netted, so a revert
+         * and a re-apply of equal size write no lines.
+         */
+        public Posting external(Long accountId, BigDecimal signedAmount, LocalDate effectiveDate) {
+            external.computeIfAbsent(accountId, id -> new TreeMap<>())
+                    .merge(effectiveDate, signedAmount, BigDecimal::add);
+            return this;
+        }
+
+        /**
+         * Let the debits of this posting take an account below zero, as expenses and manual
+         * corrections may.
+         */
+        public Posting allowOverdraft() {
+            this.overdraftAllowed = true;
+            return this;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        // The move lines, then one line per account and day changed from outside, then the
+        // EXTERNAL counterpart of each day
+        public List<Line> getLines() {
+            if (external.isEmpty()) {
+                return lines;
+            }
+            List<Line> all = new ArrayList<>(lines);
+            NavigableMap<LocalDate, BigDecimal> outside = new TreeMap<>();
+            for (Map.Entry<Long, NavigableMap<LocalDate, BigDecimal>> account : external.entrySet()) {
+                for (Map.Entry<LocalDate, BigDecimal> amount : account.getValue().entrySet()) {
+                    if (amount.getValue().signum() != 0) {
+                        all.add(new Line(LedgerEntry.Book.ACCOUNT, account.getKey(), amount.getValue(), amount.getKey()));
+                        outside.merge(amount.getKey(), amount.getValue().negate(), BigDecimal::add);
+                    }
+                }
+            }
+            for (Map.Entry<LocalDate, BigDecimal> amount : outside.entrySet()) {
+                if (amount.getValue().signum() != 0) {
+                    all.add(new Line(LedgerEntry.Book.EXTERNAL, userId, amount.getValue(), amount.getKey()));
+                }
+            }
+            return all;
+        }
+
+        // True when the posting would not change anything
+        public boolean isEmpty() {
+            return getLines().isEmpty();
+        }
+
+        void validate() {
+            if (key == null || key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+                throw new IllegalArgumentException("Posting key must be 1 to " + MAX_KEY_LENGTH + " characters");
+            }
+            BigDecimal sum = BigDecimal.ZERO;
+            List<Line> all = getLines();
+            for (Line line : all) {
+                sum = sum.add(line.amount());
+            }
+            if (all.isEmpty() || sum.signum() != 0) {
+                throw new IllegalArgumentException("Posting " + key + " is not balanced");
+            }
+        }
+
+        LedgerEntry entry(int lineNo, Line line, LocalDateTime now) {
+            LedgerEntry entry = new LedgerEntry();
+            entry.setPostingKey(key);
+            entry.setLineNo(lineNo);
+            entry.setPostingType(type);
+            entry.setUserId(userId);
+            entry.setBook(line.book());
+            entry.setBookId(line.bookId());
+            entry.setAmount(line.amount());
+            entry.setEffectiveDate(line.effectiveDate());
+            entry.setDescription(description != null && description.length() > MAX_DESCRIPTION_LENGTH
+                    ? description.substring(0, MAX_DESCRIPTION_LENGTH) : description);
+            entry.setCreatedAt(now);
+            return entry;
+        }
+    }
+}
@@ -33,14 +33,17 @@ public class LoanService {
     private LoanPaymentRepository loanPaymentRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private EntityLookupCache entityLookupCache;
 
     @Autowired
-    private AccountRepository accountRepository;
+    private LedgerService ledgerService;
 
     @Autowired
     private TransactionRepository transactionRepository;
 
+    @Autowired
+    private DailyTotalsService dailyTotalsService;
+
     @Transactional
     public LoanAccount createLoan(LoanAccountRequest request, Long userId) {
         // Validate if loan name already exists for this user
@@ -49,17 +52,13 @@ public class LoanService {
         }
 
         // Get user
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+        User user = entityLookupCache.userReference(userId);
 
-        // Get destination account
-        Account destinationAccount = accountRepository.findById(request.getDestinationAccountId())
-                .orElseThrow(() -> new ResourceNotFoundException("Account", "id", request.getDestinationAccountId()));
-
-        // Check if account belongs to user
-        if (!destinationAccount.getUser().getId().equals(userId)) {
+        // Check if the destination account belongs to user
+        if (!entityLookupCache.isAccountOwnedBy(request.getDestinationAccountId(), userId)) {
             throw new BadRequestException("You don't have permission to use this account");
         }
+        Account destinationAccount = entityLookupCache.accountReference(request.getDestinationAccountId());
 
         // Create loan account
         LoanAccount loanAccount = new LoanAccount();
@@ -81,9 +80,11 @@ public class LoanService {
         loanAccount.setPayments(paymentSchedule);
         loanAccountRepository.save(loanAccount);
 
-        // Update destination account balance (add the loan amount)
-        destinationAccount.setBalance(destinationAccount.getBalance().add(request.getAmount()));
-        accountRepository.save(destinationAccount);
+        // Pay the loan amount out into the destination account
+        ledgerService.post(new LedgerService.Posting("loan:" + loanAccount.getId() + ":disbursement",
+                LedgerEntry.PostingType.LOAN_DISBURSEMENT, userId, "Loan disbursement: " + request.getName())
+                .move(LedgerEntry.Book.LOAN, loanAccount.getId(), LedgerEntry.Book.ACCOUNT,
+                        request.getDestinationAccountId(), request.getAmount()));
 
         // Create a transaction for this loan
         Transaction transaction = new Transaction();
@@ -95,6 +96,7 @@ public class LoanService {
         transaction.setAccount(destinationAccount);
         transaction.setUser(user);
         transactionRepository.save(transaction);
+        dailyTotalsService.recordCreated(transaction);
 
         return loanAccount;
     }
@@ -122,30 +124,34 @@ public class LoanService {
         // Get source account
         Account sourceAccount = loanAccount.getDestinationAccount();
 
-        // Check if account has sufficient balance
-        if (sourceAccount.getBalance().compareTo(payment.getAmount()) < 0) {
-            throw new BadRequestException("Insufficient funds in the account");
-        }
-
         // Update payment status
         payment.setStatus(LoanPayment.PaymentStatus.PAID);
         payment.setPaymentDate(LocalDate.now());
         loanPaymentRepository.save(payment);
 
-        // Update source account balance
-        sourceAccount.setBalance(sourceAccount.getBalance().subtract(payment.getAmount()));
-        accountRepository.save(sourceAccount);
+        // Take the installment from the source account; fails if the funds are not there, and
+        // the installment key means the same installment can never be posted twice
+        String description = "Loan payment #" + installmentNumber + " for " + loanAccount.getName();
+        boolean posted = ledgerService.post(new LedgerService.Posting(
+                "loan:" + loanId + ":installment:" + installmentNumber,
+                LedgerEntry.PostingType.LOAN_PAYMENT, userId, description)
+                .move(LedgerEntry.Book.ACCOUNT, sourceAccount.getId(), LedgerEntry.Book.LOAN, loanId,
+                        payment.getAmount()));
+        if (!posted) {
+            throw new BadRequestException("This installment has already been paid");
+        }
 
         // Create a transaction for this payment
         Transaction transaction = new Transaction();
         transaction.setAmount(payment.getAmount());
         transaction.setType(Transaction.TransactionType.EXPENSE);
         transaction.setCategory(Transaction.Category.OTHER);
-        transaction.setDescription("Loan payment #" + installmentNumber + " for " + loanAccount.getName());
+        transaction.setDescription(description);
         transaction.setDate(LocalDateTime.now());
         transaction.setAccount(sourceAccount);
         transaction.setUser(loanAccount.getUser());
         transactionRepository.save(transaction);
+        dailyTotalsService.recordCreated(transaction);
 
         // Check if all installments are paid
         boolean allPaid = loanAccount.getPayments().stream()
@@ -0,0 +1,102 @@
+package org.example.finance_management_system.service;
+
+import org.example.finance_management_system.dto.response.TransactionAggregateResponse;
+import org.example.finance_management_system.dto.response.TransactionAggregateRow;
+import org.example.finance_management_system.exception.BadRequestException;
+import org.example.finance_management_system.model.Transaction;
+import org.example.finance_management_system.repository.DailyCategoryTotalRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Report figures computed by grouped SUM/COUNT queries over the daily_category_totals rollup,
+ * so the work done is proportional to the number of (period, type, category) buckets in the range.
+ */
+@Service
+public class ReportService {
+
+    @Autowired
+    private DailyCategoryTotalRepository dailyCategoryTotalRepository;
+
+    public enum Bucket {
+        NONE, DAY, WEEK, MONTH;
+
+        public static Bucket parse(String value) {
+            for (Bucket bucket : values()) {
+                if (bucket.name().equalsIgnoreCase(value)) {
+                    return bucket;
+                }
+            }
+            throw new BadRequestException("Unsupported bucket: " + value);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public TransactionAggregateResponse aggregate(Long userId, LocalDate fromDate, LocalDate toDate, Bucket bucket) {
+        if (fromDate.isAfter(toDate)) {
+            throw new BadRequestException("From date must not be after to date");
+        }
+        List<TransactionAggregateRow> rows = switch (bucket) {
+            case NONE -> dailyCategoryTotalRepository.aggregateByTypeAndCategory(userId, fromDate, toDate);
+            case MONTH -> dailyCategoryTotalRepository.aggregateByMonth(userId, fromDate, toDate);
+            // Weeks are folded from daily rows: at most seven rows per week and category
+            case DAY, WEEK -> dailyCategoryTotalRepository.aggregateByDay(userId, fromDate, toDate);
+        };
+
+        TransactionAggregateResponse response = new TransactionAggregateResponse();
+        response.setFromDate(fromDate);
+        response.setToDate(toDate);
+        response.setBucket(bucket.name());
+
+        Map<List<Object>, TransactionAggregateResponse.Bucket> buckets = new LinkedHashMap<>();
+        for (TransactionAggregateRow row : rows) {
+            LocalDate periodStart = periodStart(row, bucket);
+            buckets.merge(List.of(Objects.toString(periodStart), row.getType(), row.getCategory()),
+                    new TransactionAggregateResponse.Bucket(periodStart, row.getType(), row.getCategory(),
+                            row.getTotal(), row.getCount()),
+                    (a, b) -> {
+                        a.setTotal(a.getTotal().add(b.getTotal()));
+                        a.setCount(a.getCount() + b.getCount());
+                        return a;
+                    });
+
+            if (row.getType() == Transaction.TransactionType.INCOME) {
+                response.setTotalIncome(response.getTotalIncome().add(row.getTotal()));
+            } else {
+                response.setTotalExpense(response.getTotalExpense().add(row.getTotal()));
+            }
+        }
+        response.setBalance(response.getTotalIncome().subtract(response.getTotalExpense()));
+
+        List<TransactionAggregateResponse.Bucket> sorted = new ArrayList<>(buckets.values());
+        sorted.sort(Comparator
+                .comparing(TransactionAggregateResponse.Bucket::getPeriodStart,
+                        Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(TransactionAggregateResponse.Bucket::getType)
+                .thenComparing(TransactionAggregateResponse.Bucket::getCategory));
+        response.setBuckets(sorted);
+        return response;
+    }
+
+    private static LocalDate periodStart(TransactionAggregateRow row, Bucket bucket) {
+        return switch (bucket) {
+            case NONE -> null;
+            case MONTH -> LocalDate.of(row.getYear(), row.getMonth(), 1);
+            case DAY -> LocalDate.of(row.getYear(), row.getMonth(), row.getDay());
+            case WEEK -> LocalDate.of(row.getYear(), row.getMonth(), row.getDay())
+                    .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        };
+    }
+}
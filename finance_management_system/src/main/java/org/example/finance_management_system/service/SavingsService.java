@@ -0,0 +1,160 @@
+package org.example.finance_management_system.service;
+
+import org.example.finance_management_system.dto.request.SavingsAccountRequest;
+import org.example.finance_management_system.dto.response.SavingsAccountResponse;
+import org.example.finance_management_system.exception.BadRequestException;
+import org.example.finance_management_system.exception.ForbiddenException;
+import org.example.finance_management_system.exception.ResourceNotFoundException;
+import org.example.finance_management_system.model.Account;
+import org.example.finance_management_system.model.LedgerEntry;
+import org.example.finance_management_system.model.SavingsAccount;
+import org.example.finance_management_system.model.Transaction;
+import org.example.finance_management_system.model.User;
+import org.example.finance_management_system.repository.SavingsAccountRepository;
+import org.example.finance_management_system.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Opens and withdraws savings accounts. The savings row, the ledger posting that moves the money,
+ * the matching transaction and its rollup are written in one database transaction, so a failed
+ * funds check leaves nothing behind.
+ */
+@Service
+public class SavingsService {
+
+    @Autowired
+    private SavingsAccountRepository savingsAccountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private EntityLookupCache entityLookupCache;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private DailyTotalsService dailyTotalsService;
+
+    @Transactional
+    public SavingsAccount createSavingsAccount(SavingsAccountRequest request, Long userId) {
+        // Check if savings account name already exists for this user
+        if (savingsAccountRepository.existsByNameAndUserId(request.getName(), userId)) {
+            throw new BadRequestException("Savings account with this name already exists");
+        }
+
+        // Get user
+        User user = entityLookupCache.userReference(userId);
+
+        // Check if source account belongs to user
+        if (!entityLookupCache.isAccountOwnedBy(request.getSourceAccountId(), userId)) {
+            throw new ForbiddenException("You don't have permission to use this account");
+        }
+        Account sourceAccount = entityLookupCache.accountReference(request.getSourceAccountId());
+
+        // Create new savings account
+        SavingsAccount savingsAccount = new SavingsAccount();
+        savingsAccount.setName(request.getName());
+        savingsAccount.setInitialDeposit(request.getInitialDeposit());
+        savingsAccount.setInterestRate(request.getInterestRate());
+        savingsAccount.setTermType(request.getTermType());
+        savingsAccount.setTag(request.getTag());
+        savingsAccount.setSourceAccount(sourceAccount);
+        savingsAccount.setStartDate(request.getStartDate());
+        savingsAccount.setUser(user);
+        savingsAccount.setStatus(SavingsAccount.SavingsStatus.ACTIVE);
+        savingsAccount.setMaturityDate(maturityDate(request.getTermType(), request.getStartDate()));
+
+        // Save the savings account first so the deposit can be posted against its id
+        savingsAccountRepository.save(savingsAccount);
+
+        // Move the initial deposit out of the source account; fails if the funds are not there
+        String description = "Initial deposit for savings account: " + request.getName();
+        ledgerService.post(new LedgerService.Posting("savings:" + savingsAccount.getId() + ":deposit",
+                LedgerEntry.PostingType.SAVINGS_DEPOSIT, userId, description)
+                .move(LedgerEntry.Book.ACCOUNT, request.getSourceAccountId(),
+                        LedgerEntry.Book.SAVINGS, savingsAccount.getId(), request.getInitialDeposit()));
+
+        recordTransaction(Transaction.TransactionType.EXPENSE, request.getInitialDeposit(), description,
+                sourceAccount, user);
+
+        return savingsAccount;
+    }
+
+    @Transactional
+    public SavingsAccount withdraw(Long id, Long userId) {
+        SavingsAccount savingsAccount = savingsAccountRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Savings Account", "id", id));
+
+        // Check if savings account belongs to the authenticated user
+        if (!savingsAccount.getUser().getId().equals(userId)) {
+            throw new ForbiddenException("You don't have permission to withdraw from this savings account");
+        }
+
+        // Check if already withdrawn
+        if (savingsAccount.getStatus() == SavingsAccount.SavingsStatus.WITHDRAWN) {
+            throw new BadRequestException("This savings account has already been withdrawn");
+        }
+
+        // Calculate current value
+        BigDecimal withdrawalAmount = SavingsAccountResponse.fromEntity(savingsAccount).getCurrentValue();
+
+        // Pay the current value back into the source account; the key allows one withdrawal only
+        Account sourceAccount = savingsAccount.getSourceAccount();
+        String description = "Withdrawal from savings account: " + savingsAccount.getName();
+        boolean posted = ledgerService.post(new LedgerService.Posting("savings:" + id + ":withdrawal",
+                LedgerEntry.PostingType.SAVINGS_WITHDRAWAL, userId, description)
+                .move(LedgerEntry.Book.SAVINGS, id, LedgerEntry.Book.ACCOUNT, sourceAccount.getId(),
+                        withdrawalAmount));
+        if (!posted) {
+            throw new BadRequestException("This savings account has already been withdrawn");
+        }
+
+        recordTransaction(Transaction.TransactionType.INCOME, withdrawalAmount, description,
+                sourceAccount, savingsAccount.getUser());
+
+        // Update savings account status
+        savingsAccount.setStatus(SavingsAccount.SavingsStatus.WITHDRAWN);
+        savingsAccount.setWithdrawalDate(LocalDate.now());
+        savingsAccountRepository.save(savingsAccount);
+
+        return savingsAccount;
+    }
+
+    // Calculate maturity date based on term type
+    private static LocalDate maturityDate(SavingsAccount.TermType termType, LocalDate startDate) {
+        switch (termType) {
+            case THREE_MONTH:
+                return startDate.plusMonths(3);
+            case SIX_MONTH:
+                return startDate.plusMonths(6);
+            case TWELVE_MONTH:
+                return startDate.plusYears(1);
+            case DAILY_FLEXIBLE:
+            default:
+                // For daily flexible, set a default of 1 year, but it can be withdrawn anytime
+                return startDate.plusYears(1);
+        }
+    }
+
+    private void recordTransaction(Transaction.TransactionType type, BigDecimal amount, String description,
+                                   Account account, User user) {
+        Transaction transaction = new Transaction();
+        transaction.setAmount(amount);
+        transaction.setType(type);
+        transaction.setCategory(Transaction.Category.OTHER);
+        transaction.setDescription(description);
+        transaction.setDate(LocalDateTime.now());
+        transaction.setAccount(account);
+        transaction.setUser(user);
+        transactionRepository.save(transaction);
+        dailyTotalsService.recordCreated(transaction);
+    }
+}
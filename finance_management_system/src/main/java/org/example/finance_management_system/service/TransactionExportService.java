@@ -0,0 +1,143 @@
+package org.example.finance_management_system.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.finance_management_system.dto.response.TransactionResponse;
+import org.example.finance_management_system.exception.BadRequestException;
+import org.example.finance_management_system.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes a user's transactions straight to an output stream, row by row, so an
+ * export never holds more than one transaction in memory at a time.
+ */
+@Service
+public class TransactionExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionExportService.class);
+
+    private static final String CSV_HEADER =
+            "id,date,description,amount,type,category,accountId,accountName,accountType,notes";
+
+    // Flush periodically so the client starts receiving bytes right away
+    private static final int FLUSH_EVERY_ROWS = 500;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public enum ExportFormat {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        ExportFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static ExportFormat parse(String value) {
+            for (ExportFormat format : values()) {
+                if (format.extension.equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new BadRequestException("Unsupported export format: " + value);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void export(Long userId, ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long count = 0;
+        // Rows are DTO projections, not managed entities, so nothing accumulates
+        // in the persistence context while the result set is streamed
+        try (Stream<TransactionResponse> rows = transactionRepository.streamByUserId(userId)) {
+            Iterator<TransactionResponse> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                TransactionResponse transaction = iterator.next();
+                if (format == ExportFormat.CSV) {
+                    writeCsvRow(writer, transaction);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(transaction));
+                    writer.write('\n');
+                }
+
+                if (++count % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            }
+        }
+
+        writer.flush();
+        logger.debug("Exported {} transactions for user {} as {}", count, userId, format);
+    }
+
+    private void writeCsvRow(Writer writer, TransactionResponse transaction) throws IOException {
+        writer.write(String.valueOf(transaction.getId()));
+        writer.write(',');
+        writer.write(String.valueOf(transaction.getDate()));
+        writer.write(',');
+        writer.write(csv(transaction.getDescription()));
+        writer.write(',');
+        writer.write(transaction.getAmount().toPlainString());
+        writer.write(',');
+        writer.write(transaction.getType().name());
+        writer.write(',');
+        writer.write(transaction.getCategory().name());
+        writer.write(',');
+        writer.write(field(transaction.getAccountId()));
+        writer.write(',');
+        writer.write(csv(transaction.getAccountName()));
+        writer.write(',');
+        writer.write(field(transaction.getAccountType()));
+        writer.write(',');
+        writer.write(csv(transaction.getNotes()));
+        writer.write('\n');
+    }
+
+    // Transactions without an account get empty account columns, not the text "null"
+    private static String field(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    private static String csv(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,226 @@
+package org.example.finance_management_system.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.finance_management_system.dto.request.TransactionCursor;
+import org.example.finance_management_system.dto.response.TransactionResponse;
+import org.example.finance_management_system.model.Account;
+import org.example.finance_management_system.model.Transaction;
+import org.example.finance_management_system.model.TransactionHistory;
+import org.example.finance_management_system.repository.TransactionHistoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Writes and reads transaction history as field-level diffs. An UPDATE row stores only the
+ * fields that changed: old_value holds their previous values and new_value their new ones,
+ * both as small JSON objects keyed by TransactionResponse property names. A DELETE row keeps
+ * the full snapshot in old_value since the transaction row itself is gone.
+ * <p>
+ * Older rows stored full snapshots in both columns. They are read the same way (a snapshot is
+ * just a diff that lists every field) and can be shrunk with {@link #compactPage(Long, int)}.
+ */
+@Service
+public class TransactionHistoryService {
+
+    private static final TypeReference<LinkedHashMap<String, Object>> FIELDS = new TypeReference<>() {
+    };
+
+    @Autowired
+    private TransactionHistoryRepository transactionHistoryRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * The tracked fields of a transaction, read straight from the entity without serializing it.
+     * The user is not touched; the account is, for the name and type shown in the history dialog.
+     */
+    public Map<String, Object> fieldsOf(Transaction transaction) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("description", transaction.getDescription());
+        fields.put("amount", transaction.getAmount());
+        fields.put("type", transaction.getType());
+        fields.put("category", transaction.getCategory());
+        fields.put("date", transaction.getDate());
+        Account account = transaction.getAccount();
+        fields.put("accountId", account != null ? account.getId() : null);
+        fields.put("accountName", account != null ? account.getName() : null);
+        fields.put("accountType", account != null ? account.getType() : null);
+        fields.put("notes", transaction.getNotes());
+        return fields;
+    }
+
+    /**
+     * Build the UPDATE history row for a change from {@code before} to {@code after}, or return
+     * null when no tracked field changed.
+     */
+    public TransactionHistory updateHistory(Long transactionId, Long userId, Map<String, Object> before,
+                                            Transaction after, String username, LocalDateTime changedAt) {
+        Map<String, Object> afterFields = fieldsOf(after);
+        Map<String, Object> oldValues = new LinkedHashMap<>();
+        Map<String, Object> newValues = new LinkedHashMap<>();
+        diff(before, afterFields, oldValues, newValues);
+        if (newValues.isEmpty()) {
+            return null;
+        }
+
+        TransactionHistory history = new TransactionHistory();
+        history.setTransactionId(transactionId);
+        history.setUserId(userId);
+        history.setOldValue(toJson(oldValues));
+        history.setNewValue(toJson(newValues));
+        history.setChangedAt(changedAt);
+        history.setChangedBy(username);
+        history.setChangeType(TransactionHistory.ChangeType.UPDATE.name());
+        return history;
+    }
+
+    // Deleted transactions keep a null transaction id to avoid the foreign key on history
+    public TransactionHistory deletionHistory(TransactionResponse snapshot, Long userId, String username,
+                                              LocalDateTime changedAt) {
+        TransactionHistory history = new TransactionHistory();
+        history.setTransactionId(null);
+        history.setUserId(userId);
+        history.setOldValue(toJson(snapshot));
+        history.setNewValue(null);
+        history.setChangedAt(changedAt);
+        history.setChangedBy(username);
+        history.setChangeType(TransactionHistory.ChangeType.DELETE.name());
+        return history;
+    }
+
+    /**
+     * Every version of a transaction, newest first, starting with {@code current}. Each older
+     * version is rebuilt by laying the old values of one UPDATE row over the version after it.
+     */
+    @Transactional(readOnly = true)
+    public List<TransactionResponse> versionsOf(TransactionResponse current) {
+        List<TransactionResponse> versions = new ArrayList<>();
+        versions.add(current);
+
+        Map<String, Object> state = objectMapper.convertValue(current, FIELDS);
+        for (TransactionHistory history : transactionHistoryRepository
+                .findByTransactionIdOrderByChangedAtDesc(current.getId())) {
+            if (!TransactionHistory.ChangeType.UPDATE.name().equals(history.getChangeType())
+                    || history.getOldValue() == null) {
+                continue;
+            }
+            state.putAll(fromJson(history.getOldValue()));
+            // Older snapshots carried these; keep the identity of the transaction we are reading
+            state.put("id", current.getId());
+            state.put("username", current.getUsername());
+            versions.add(objectMapper.convertValue(state, TransactionResponse.class));
+        }
+        return versions;
+    }
+
+    /**
+     * Rewrite one page of UPDATE rows, in id order after {@code afterId}, so that they only keep
+     * the fields that actually differ. Already compact rows are left untouched, so the
+     * compaction can be stopped and resumed at any time.
+     *
+     * @return the last id of the page, or null when there are no more rows
+     */
+    @Transactional
+    public Long compactPage(Long afterId, int pageSize) {
+        List<TransactionHistory> page = transactionHistoryRepository.findByChangeTypeAndIdGreaterThanOrderByIdAsc(
+                TransactionHistory.ChangeType.UPDATE.name(), afterId, PageRequest.of(0, pageSize));
+        if (page.isEmpty()) {
+            return null;
+        }
+
+        List<TransactionHistory> rewritten = new ArrayList<>();
+        for (TransactionHistory history : page) {
+            if (history.getOldValue() == null || history.getNewValue() == null) {
+                continue;
+            }
+            Map<String, Object> before = fromJson(history.getOldValue());
+            Map<String, Object> after = fromJson(history.getNewValue());
+            Map<String, Object> oldValues = new LinkedHashMap<>();
+            Map<String, Object> newValues = new LinkedHashMap<>();
+            diff(before, after, oldValues, newValues);
+            if (oldValues.size() < before.size() || newValues.size() < after.size()) {
+                // Detached copy: the managed row must not be flushed a second time by Hibernate
+                TransactionHistory compacted = new TransactionHistory();
+                compacted.setId(history.getId());
+                compacted.setOldValue(toJson(oldValues));
+                compacted.setNewValue(toJson(newValues));
+                rewritten.add(compacted);
+            }
+        }
+        transactionHistoryRepository.batchUpdateValues(rewritten);
+        return page.get(page.size() - 1).getId();
+    }
+
+    @Transactional
+    public int backfillUserIds() {
+        return transactionHistoryRepository.backfillUserIds();
+    }
+
+    /**
+     * One page of a user's history rows of the given change type, newest first, continuing
+     * after the (changedAt, id) cursor when one is given.
+     */
+    @Transactional(readOnly = true)
+    public List<TransactionHistory> auditPage(Long userId, TransactionHistory.ChangeType changeType,
+                                              TransactionCursor after, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        if (after == null) {
+            return transactionHistoryRepository.findFirstAuditPage(userId, changeType.name(), page);
+        }
+        return transactionHistoryRepository.findAuditPageAfterCursor(
+                userId, changeType.name(), after.getDate(), after.getId(), page);
+    }
+
+    // Collects the fields of after that differ from before; fields only in one side are ignored
+    private static void diff(Map<String, Object> before, Map<String, Object> after,
+                             Map<String, Object> oldValues, Map<String, Object> newValues) {
+        for (Map.Entry<String, Object> field : after.entrySet()) {
+            String name = field.getKey();
+            if (name.equals("id") || name.equals("username") || !before.containsKey(name)) {
+                continue;
+            }
+            if (!sameValue(before.get(name), field.getValue())) {
+                oldValues.put(name, before.get(name));
+                newValues.put(name, field.getValue());
+            }
+        }
+    }
+
+    // Amounts compare by value so 10 and 10.00 are not reported as a change
+    private static boolean sameValue(Object a, Object b) {
+        if (a instanceof Number && b instanceof Number) {
+            return new BigDecimal(a.toString()).compareTo(new BigDecimal(b.toString())) == 0;
+        }
+        return Objects.equals(a, b);
+    }
+
+    // Unchecked so that a serialization failure still rolls the transaction back
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize transaction history", e);
+        }
+    }
+
+    private Map<String, Object> fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, FIELDS);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read transaction history", e);
+        }
+    }
+}
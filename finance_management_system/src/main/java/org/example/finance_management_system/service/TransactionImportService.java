@@ -0,0 +1,528 @@
+package org.example.finance_management_system.service;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.example.finance_management_system.dto.request.TransactionRequest;
+import org.example.finance_management_system.dto.response.ImportResultResponse;
+import org.example.finance_management_system.exception.BadRequestException;
+import org.example.finance_management_system.model.Account;
+import org.example.finance_management_system.model.LedgerEntry;
+import org.example.finance_management_system.model.Transaction;
+import org.example.finance_management_system.repository.AccountRepository;
+import org.example.finance_management_system.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Imports bank statements (CSV, OFX or QIF) as transactions. The upload is parsed row by
+ * row, every row is validated against the TransactionRequest constraints, valid rows are
+ * inserted in JDBC batches and each account balance and daily rollup row receives a single
+ * net delta at the end.
+ * Invalid rows are skipped and reported back with their row number.
+ */
+@Service
+public class TransactionImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionImportService.class);
+
+    // Rows buffered before handing them to the JDBC batch insert
+    private static final int CHUNK_SIZE = 5000;
+
+    // Only the first errors are reported; the counts still cover every row
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final int MAX_DESCRIPTION_LENGTH = 255;
+
+    private static final DateTimeFormatter OFX_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter OFX_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private static final DateTimeFormatter QIF_DATE = DateTimeFormatter.ofPattern("M/d/yyyy");
+
+    // 1,234 or -12,345,678.90: commas in groups of exactly three digits before the decimal point
+    private static final Pattern GROUPED_AMOUNT = Pattern.compile("[+-]?\\d{1,3}(,\\d{3})+(\\.\\d+)?");
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private DailyTotalsService dailyTotalsService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private Validator validator;
+
+    public enum ImportFormat {
+        CSV("csv"),
+        OFX("ofx"),
+        QIF("qif");
+
+        private final String extension;
+
+        ImportFormat(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static ImportFormat parse(String value) {
+            for (ImportFormat format : values()) {
+                if (format.extension.equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new BadRequestException("Unsupported import format: " + value);
+        }
+
+        // Falls back to the file extension when no explicit format is given
+        public static ImportFormat fromFilename(String filename) {
+            if (filename == null || filename.lastIndexOf('.') < 0) {
+                throw new BadRequestException("Cannot determine import format, please pass the format parameter");
+            }
+            return parse(filename.substring(filename.lastIndexOf('.') + 1));
+        }
+    }
+
+    /**
+     * Import all rows of the given statement for a user in one database transaction.
+     *
+     * @param defaultAccountId account used for rows without an accountId column; required for
+     *                         OFX and QIF, which carry no account id of ours
+     */
+    @Transactional
+    public ImportResultResponse importTransactions(InputStream in, ImportFormat format,
+                                                   Long userId, Long defaultAccountId) throws IOException {
+        ImportContext context = new ImportContext(userId, defaultAccountId, ownedAccountIds(userId));
+
+        if (defaultAccountId != null && !context.ownedAccountIds.contains(defaultAccountId)) {
+            throw new BadRequestException("Account " + defaultAccountId + " does not exist or is not yours");
+        }
+        if (format != ImportFormat.CSV && defaultAccountId == null) {
+            throw new BadRequestException("accountId is required when importing " + format + " files");
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            switch (format) {
+                case CSV -> parseCsv(reader, context);
+                case OFX -> parseOfx(reader, context);
+                case QIF -> parseQif(reader, context);
+            }
+        }
+        context.flush();
+
+        // One posting with a net line per account and day, and one atomic UPDATE per account,
+        // in ascending id order
+        transactionService.postBalanceChanges(context.posting);
+        dailyTotalsService.apply(context.rollup);
+
+        ImportResultResponse result = context.result;
+        logger.info("Imported {} of {} {} rows for user {} ({} failed)", result.getImportedCount(),
+                result.getTotalRows(), format, userId, result.getFailedCount());
+        return result;
+    }
+
+    private Set<Long> ownedAccountIds(Long userId) {
+        Set<Long> ids = new HashSet<>();
+        for (Account account : accountRepository.findByUserId(userId)) {
+            ids.add(account.getId());
+        }
+        return ids;
+    }
+
+    // ---- CSV -------------------------------------------------------------------------------
+
+    // Columns are matched by header name, so the export format can be imported back as-is
+    private void parseCsv(BufferedReader reader, ImportContext context) throws IOException {
+        List<String> header = readCsvRecord(reader);
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("description", "amount", "type", "category")) {
+            if (!columns.containsKey(required)) {
+                throw new BadRequestException("CSV header is missing the '" + required + "' column");
+            }
+        }
+        if (!columns.containsKey("accountid") && context.defaultAccountId == null) {
+            throw new BadRequestException("CSV has no accountId column and no accountId parameter was given");
+        }
+
+        List<String> record;
+        while ((record = readCsvRecord(reader)) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            int row = context.nextRow();
+            try {
+                TransactionRequest request = new TransactionRequest();
+                request.setDescription(column(record, columns, "description"));
+                request.setAmount(parseAmount(column(record, columns, "amount")));
+                request.setType(parseEnum(Transaction.TransactionType.class, column(record, columns, "type")));
+                request.setCategory(parseEnum(Transaction.Category.class, column(record, columns, "category")));
+                String accountId = column(record, columns, "accountid");
+                request.setAccountId(accountId != null ? Long.valueOf(accountId) : context.defaultAccountId);
+                request.setDate(parseIsoDate(column(record, columns, "date")));
+                request.setNotes(column(record, columns, "notes"));
+                context.accept(row, request);
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                context.reject(row, e.getMessage());
+            }
+        }
+    }
+
+    private static String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Read one RFC 4180 record: quoted fields may contain commas, doubled quotes and line breaks.
+     * Returns null at end of input.
+     */
+    private static List<String> readCsvRecord(BufferedReader reader) throws IOException {
+        int c = reader.read();
+        if (c < 0) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c >= 0) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next >= 0) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // ---- OFX -------------------------------------------------------------------------------
+
+    // OFX 1.x is SGML where leaf elements are usually not closed, so the file is read as a
+    // flat stream of <TAG>value tokens and every <STMTTRN> block becomes one row
+    private void parseOfx(Reader reader, ImportContext context) throws IOException {
+        Map<String, String> fields = null;
+        String tag;
+        StringBuilder text = new StringBuilder();
+        while ((tag = readOfxTag(reader)) != null) {
+            text.setLength(0);
+            String upper = tag.toUpperCase(Locale.ROOT);
+            if (upper.equals("STMTTRN")) {
+                fields = new HashMap<>();
+            } else if (upper.equals("/STMTTRN")) {
+                if (fields != null) {
+                    acceptOfxTransaction(fields, context);
+                }
+                fields = null;
+            } else if (fields != null && !upper.startsWith("/")) {
+                fields.put(upper, readOfxValue(reader, text));
+            }
+        }
+    }
+
+    private static String readOfxTag(Reader reader) throws IOException {
+        int c;
+        while ((c = reader.read()) >= 0 && c != '<') {
+            // skip text outside of the elements we care about
+        }
+        if (c < 0) {
+            return null;
+        }
+        StringBuilder tag = new StringBuilder();
+        while ((c = reader.read()) >= 0 && c != '>') {
+            tag.append((char) c);
+        }
+        return tag.toString().trim();
+    }
+
+    // Value runs up to the next tag; the reader is left positioned on that '<'
+    private static String readOfxValue(Reader reader, StringBuilder text) throws IOException {
+        int c;
+        while (true) {
+            reader.mark(1);
+            c = reader.read();
+            if (c < 0) {
+                break;
+            }
+            if (c == '<') {
+                reader.reset();
+                break;
+            }
+            text.append((char) c);
+        }
+        return text.toString().trim();
+    }
+
+    private void acceptOfxTransaction(Map<String, String> fields, ImportContext context) {
+        int row = context.nextRow();
+        try {
+            BigDecimal signed = parseAmount(fields.get("TRNAMT"));
+            String description = fields.get("NAME");
+            if (description == null || description.isEmpty()) {
+                description = fields.get("MEMO");
+            }
+            context.accept(row, statementRow(signed, description, fields.get("MEMO"),
+                    parseOfxDate(fields.get("DTPOSTED")), context.defaultAccountId));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            context.reject(row, e.getMessage());
+        }
+    }
+
+    // DTPOSTED is yyyyMMdd[HHmmss[.XXX]][[gmt offset:tz name]]; the offset is ignored
+    private static LocalDateTime parseOfxDate(String value) {
+        if (value == null || value.length() < 8) {
+            throw new IllegalArgumentException("Invalid DTPOSTED: " + value);
+        }
+        if (value.length() >= 14 && Character.isDigit(value.charAt(13))) {
+            return LocalDateTime.parse(value.substring(0, 14), OFX_DATE_TIME);
+        }
+        return LocalDate.parse(value.substring(0, 8), OFX_DATE).atStartOfDay();
+    }
+
+    // ---- QIF -------------------------------------------------------------------------------
+
+    // QIF records are one field per line, keyed by the first character and ended by '^'
+    private void parseQif(BufferedReader reader, ImportContext context) throws IOException {
+        String date = null;
+        String amount = null;
+        String payee = null;
+        String memo = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty() || line.charAt(0) == '!') {
+                continue;
+            }
+            String value = line.substring(1).trim();
+            switch (line.charAt(0)) {
+                case 'D' -> date = value;
+                case 'T', 'U' -> amount = value;
+                case 'P' -> payee = value;
+                case 'M' -> memo = value;
+                case '^' -> {
+                    int row = context.nextRow();
+                    try {
+                        String description = payee != null ? payee : memo;
+                        context.accept(row, statementRow(parseAmount(amount), description, memo,
+                                parseQifDate(date), context.defaultAccountId));
+                    } catch (IllegalArgumentException | DateTimeParseException e) {
+                        context.reject(row, e.getMessage());
+                    }
+                    date = amount = payee = memo = null;
+                }
+                default -> {
+                    // other QIF fields (check number, category, splits) are not imported
+                }
+            }
+        }
+    }
+
+    // Accepts M/d/yyyy and the common M/d'yy variant as well as ISO dates
+    private static LocalDateTime parseQifDate(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Date is required");
+        }
+        String normalized = value.replace(' ', '0');
+        int apostrophe = normalized.indexOf('\'');
+        if (apostrophe >= 0) {
+            normalized = normalized.substring(0, apostrophe) + "/20" + normalized.substring(apostrophe + 1);
+        }
+        if (normalized.indexOf('/') >= 0) {
+            return LocalDate.parse(normalized, QIF_DATE).atStartOfDay();
+        }
+        return parseIsoDate(normalized);
+    }
+
+    // ---- shared ----------------------------------------------------------------------------
+
+    // Bank statements carry signed amounts: negative rows are expenses, positive rows income
+    private static TransactionRequest statementRow(BigDecimal signedAmount, String description, String notes,
+                                                   LocalDateTime date, Long accountId) {
+        boolean expense = signedAmount.signum() < 0;
+        TransactionRequest request = new TransactionRequest();
+        request.setDescription(description);
+        request.setAmount(signedAmount.abs());
+        request.setType(expense ? Transaction.TransactionType.EXPENSE : Transaction.TransactionType.INCOME);
+        request.setCategory(expense ? Transaction.Category.OTHER : Transaction.Category.INCOME);
+        request.setAccountId(accountId);
+        request.setDate(date);
+        request.setNotes(notes);
+        return request;
+    }
+
+    // Amounts use '.' as the decimal separator; a comma is only accepted as a thousands
+    // separator, so "12,50" is rejected instead of being read as 1250
+    private static BigDecimal parseAmount(String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing amount");
+        }
+        String amount = value.trim();
+        if (amount.indexOf(',') >= 0) {
+            if (!GROUPED_AMOUNT.matcher(amount).matches()) {
+                throw new IllegalArgumentException("Invalid amount: " + value
+                        + " (use '.' as the decimal separator)");
+            }
+            amount = amount.replace(",", "");
+        }
+        try {
+            return new BigDecimal(amount);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + value);
+        }
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + type.getSimpleName() + ": " + value);
+        }
+    }
+
+    private static LocalDateTime parseIsoDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        return value.length() <= 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+    }
+
+    /**
+     * Per-import state: the pending chunk, the running balance posting and the result report.
+     */
+    private class ImportContext {
+        private final Long userId;
+        private final Long defaultAccountId;
+        private final Set<Long> ownedAccountIds;
+        private final List<TransactionRequest> chunk = new ArrayList<>(CHUNK_SIZE);
+        private final DailyTotalsService.Changes rollup = new DailyTotalsService.Changes();
+        private final ImportResultResponse result = new ImportResultResponse();
+        private final LocalDateTime importedAt = LocalDateTime.now();
+        private final LedgerService.Posting posting;
+
+        ImportContext(Long userId, Long defaultAccountId, Set<Long> ownedAccountIds) {
+            this.userId = userId;
+            this.defaultAccountId = defaultAccountId;
+            this.ownedAccountIds = ownedAccountIds;
+            this.posting = new LedgerService.Posting("import:" + UUID.randomUUID(),
+                    LedgerEntry.PostingType.IMPORT, userId, "Statement import");
+        }
+
+        int nextRow() {
+            result.setTotalRows(result.getTotalRows() + 1);
+            return result.getTotalRows();
+        }
+
+        void accept(int row, TransactionRequest request) {
+            Set<ConstraintViolation<TransactionRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                StringBuilder message = new StringBuilder();
+                for (ConstraintViolation<TransactionRequest> violation : violations) {
+                    if (message.length() > 0) {
+                        message.append("; ");
+                    }
+                    message.append(violation.getMessage());
+                }
+                reject(row, message.toString());
+                return;
+            }
+            if (request.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
+                reject(row, "Description must be at most " + MAX_DESCRIPTION_LENGTH + " characters");
+                return;
+            }
+            if (!ownedAccountIds.contains(request.getAccountId())) {
+                reject(row, "Account " + request.getAccountId() + " does not exist or is not yours");
+                return;
+            }
+            if (request.getDate() == null) {
+                request.setDate(importedAt);
+            }
+
+            chunk.add(request);
+            posting.external(request.getAccountId(),
+                    TransactionService.signedAmount(request.getType(), request.getAmount()),
+                    request.getDate().toLocalDate());
+            rollup.add(userId, request.getAccountId(), request.getDate(), request.getType(),
+                    request.getCategory(), request.getAmount(), 1);
+            if (chunk.size() >= CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        void reject(int row, String message) {
+            result.setFailedCount(result.getFailedCount() + 1);
+            if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+                result.getErrors().add(new ImportResultResponse.RowError(row, message));
+            }
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            transactionRepository.batchInsert(userId, chunk);
+            result.setImportedCount(result.getImportedCount() + chunk.size());
+            chunk.clear();
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package org.example.finance_management_system.service;
+
+import org.example.finance_management_system.dto.request.TransactionRequest;
+import org.example.finance_management_system.dto.response.TransactionResponse;
+import org.example.finance_management_system.exception.ForbiddenException;
+import org.example.finance_management_system.exception.ResourceNotFoundException;
+import org.example.finance_management_system.metrics.FinanceMetrics;
+import org.example.finance_management_system.model.Account;
+import org.example.finance_management_system.model.LedgerEntry;
+import org.example.finance_management_system.model.Transaction;
+import org.example.finance_management_system.model.TransactionHistory;
+import org.example.finance_management_system.model.User;
+import org.example.finance_management_system.repository.TransactionHistoryRepository;
+import org.example.finance_management_system.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Creates, updates and deletes transactions together with their effect on account balances.
+ * Every operation runs in a single database transaction. The balance effect is posted to the
+ * ledger against the user's EXTERNAL book, which changes balances with atomic
+ * "balance = balance + delta" updates in ascending account id order, so that two writers
+ * touching the same pair of accounts always lock the rows in the same order.
+ */
+@Service
+public class TransactionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionService.class);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionHistoryRepository transactionHistoryRepository;
+
+    @Autowired
+    private DailyTotalsService dailyTotalsService;
+
+    @Autowired
+    private TransactionHistoryService transactionHistoryService;
+
+    @Autowired
+    private EntityLookupCache entityLookupCache;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private FinanceMetrics financeMetrics;
+
+    @Transactional
+    public Transaction createTransaction(TransactionRequest request, Long userId) {
+        User user = entityLookupCache.userReference(userId);
+
+        Account account = findOwnedAccount(request.getAccountId(), userId);
+
+        Transaction transaction = new Transaction();
+        transaction.setDescription(request.getDescription());
+        transaction.setAmount(request.getAmount());
+        transaction.setType(request.getType());
+        transaction.setCategory(request.getCategory());
+        transaction.setDate(request.getDate() != null ? request.getDate() : LocalDateTime.now());
+        transaction.setUser(user);
+        transaction.setAccount(account);
+        transaction.setNotes(request.getNotes());
+        transactionRepository.save(transaction);
+
+        postBalanceChanges(new LedgerService.Posting("transaction:" + transaction.getId() + ":created",
+                LedgerEntry.PostingType.TRANSACTION, userId, transaction.getDescription())
+                .external(account.getId(), signedAmount(transaction.getType(), transaction.getAmount()),
+                        transaction.getDate().toLocalDate()));
+        dailyTotalsService.recordCreated(transaction);
+
+        return transaction;
+    }
+
+    @Transactional
+    public Transaction updateTransaction(Long id, TransactionRequest request, Long userId, String username) {
+        Transaction transaction = transactionRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Transaction", "id", id));
+
+        if (!transaction.getUser().getId().equals(userId)) {
+            throw new ForbiddenException("You don't have permission to update this transaction");
+        }
+
+        // Save the transaction state before updating
+        Map<String, Object> oldFields = transactionHistoryService.fieldsOf(transaction);
+
+        Long originalAccountId = transaction.getAccount().getId();
+        BigDecimal originalEffect = signedAmount(transaction.getType(), transaction.getAmount());
+        LocalDate originalDate = transaction.getDate().toLocalDate();
+
+        // Move the transaction out of its original rollup row and into the new one
+        DailyTotalsService.Changes rollup = new DailyTotalsService.Changes();
+        rollup.remove(transaction);
+
+        Account newAccount = transaction.getAccount();
+        if (!request.getAccountId().equals(originalAccountId)) {
+            newAccount = findOwnedAccount(request.getAccountId(), userId);
+        }
+
+        transaction.setDescription(request.getDescription());
+        transaction.setAmount(request.getAmount());
+        transaction.setType(request.getType());
+        transaction.setCategory(request.getCategory());
+        if (request.getDate() != null) {
+            transaction.setDate(request.getDate());
+        }
+        transaction.setAccount(newAccount);
+        transaction.setNotes(request.getNotes());
+        transactionRepository.save(transaction);
+
+        // Revert the original effect and apply the new one; both land on the same
+        // account when it did not change, so only one UPDATE is issued
+        postBalanceChanges(new LedgerService.Posting("transaction:" + id + ":updated:" + UUID.randomUUID(),
+                LedgerEntry.PostingType.TRANSACTION, userId, transaction.getDescription())
+                .external(originalAccountId, originalEffect.negate(), originalDate)
+                .external(newAccount.getId(), signedAmount(request.getType(), request.getAmount()),
+                        transaction.getDate().toLocalDate()));
+
+        rollup.add(transaction);
+        dailyTotalsService.apply(rollup);
+
+        // Record the changed fields, if any
+        TransactionHistory history = transactionHistoryService.updateHistory(
+                transaction.getId(), userId, oldFields, transaction, username, LocalDateTime.now());
+        if (history != null) {
+            transactionHistoryRepository.save(history);
+            financeMetrics.historyWritten(1);
+        }
+
+        return transaction;
+    }
+
+    @Transactional
+    public void deleteTransaction(Long id, Long userId, String username) {
+        Transaction transaction = transactionRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Transaction", "id", id));
+
+        if (!transaction.getUser().getId().equals(userId)) {
+            throw new ForbiddenException("You don't have permission to delete this transaction");
+        }
+
+        // Capture the transaction data before deletion
+        TransactionResponse snapshot = TransactionResponse.fromEntity(transaction);
+
+        postBalanceChanges(new LedgerService.Posting("transaction:" + id + ":deleted",
+                LedgerEntry.PostingType.TRANSACTION, userId, transaction.getDescription())
+                .external(transaction.getAccount().getId(),
+                        signedAmount(transaction.getType(), transaction.getAmount()).negate(),
+                        transaction.getDate().toLocalDate()));
+        dailyTotalsService.recordDeleted(transaction);
+
+        transactionHistoryRepository.save(
+                transactionHistoryService.deletionHistory(snapshot, userId, username, LocalDateTime.now()));
+        financeMetrics.historyWritten(1);
+
+        transactionRepository.delete(transaction);
+
+        logger.info("Transaction with ID {} was successfully deleted", id);
+    }
+
+    /**
+     * Delete many transactions with a fixed number of statements: one locking IN fetch, one
+     * snapshot query, one ledger posting (a batched line insert and one balance UPDATE per
+     * affected account), a batched history insert and two bulk DELETEs. Ids that do not exist or belong to another user are reported back and
+     * skipped; all others are deleted together.
+     */
+    @Transactional
+    public BatchDeleteResult batchDeleteTransactions(Collection<Long> ids, Long userId, String username) {
+        Set<Long> requestedIds = new LinkedHashSet<>(ids);
+
+        Map<Long, Transaction> found = new HashMap<>();
+        for (Transaction transaction : transactionRepository.findAllByIdInForUpdate(requestedIds)) {
+            found.put(transaction.getId(), transaction);
+        }
+
+        BatchDeleteResult result = new BatchDeleteResult();
+        List<Long> deletableIds = new ArrayList<>();
+        Set<Long> accountIds = new HashSet<>();
+        LedgerService.Posting posting = new LedgerService.Posting("transactions:deleted:" + UUID.randomUUID(),
+                LedgerEntry.PostingType.TRANSACTION, userId, "Batch delete");
+        DailyTotalsService.Changes rollup = new DailyTotalsService.Changes();
+        for (Long id : requestedIds) {
+            Transaction transaction = found.get(id);
+            if (transaction == null) {
+                result.addFailure(id, new ResourceNotFoundException("Transaction", "id", id).getMessage());
+                continue;
+            }
+            if (!transaction.getUser().getId().equals(userId)) {
+                result.addFailure(id, "Permission denied");
+                continue;
+            }
+            deletableIds.add(id);
+            accountIds.add(transaction.getAccount().getId());
+            posting.external(transaction.getAccount().getId(),
+                    signedAmount(transaction.getType(), transaction.getAmount()).negate(),
+                    transaction.getDate().toLocalDate());
+            rollup.remove(transaction);
+        }
+
+        if (deletableIds.isEmpty()) {
+            return result;
+        }
+
+        // Snapshots for the history come from one joined projection query
+        LocalDateTime now = LocalDateTime.now();
+        List<TransactionHistory> histories = new ArrayList<>(deletableIds.size());
+        for (TransactionResponse snapshot : transactionRepository.findResponsesByIdIn(deletableIds)) {
+            histories.add(transactionHistoryService.deletionHistory(snapshot, userId, username, now));
+        }
+
+        postBalanceChanges(posting);
+        dailyTotalsService.apply(rollup);
+        transactionHistoryRepository.batchInsert(histories);
+        financeMetrics.historyWritten(histories.size());
+        transactionHistoryRepository.deleteByTransactionIdIn(deletableIds);
+        transactionRepository.deleteAllByIdIn(deletableIds);
+
+        result.setSuccessCount(deletableIds.size());
+        logger.info("Batch deleted {} transactions across {} accounts", deletableIds.size(), accountIds.size());
+        return result;
+    }
+
+    /**
+     * Post the balance effect of transaction writes. Income and expenses may take an account
+     * below zero (credit cards), and a write whose effects cancel out posts nothing.
+     */
+    void postBalanceChanges(LedgerService.Posting posting) {
+        if (!posting.isEmpty()) {
+            ledgerService.post(posting.allowOverdraft());
+        }
+    }
+
+    // Effect of a transaction on its account balance
+    static BigDecimal signedAmount(Transaction.TransactionType type, BigDecimal amount) {
+        return type == Transaction.TransactionType.EXPENSE ? amount.negate() : amount;
+    }
+
+    // Ownership comes from the lookup cache; the account itself is only loaded if read
+    private Account findOwnedAccount(Long accountId, Long userId) {
+        if (!entityLookupCache.isAccountOwnedBy(accountId, userId)) {
+            throw new ForbiddenException("You don't have permission to use this account");
+        }
+        return entityLookupCache.accountReference(accountId);
+    }
+
+    /**
+     * Outcome of a batch delete: how many transactions were removed and which ids were skipped.
+     */
+    public static class BatchDeleteResult {
+        private int successCount;
+        private final List<Long> failedIds = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+
+        void addFailure(Long id, String error) {
+            failedIds.add(id);
+            errors.add("Transaction " + id + ": " + error);
+        }
+
+        public int getSuccessCount() {
+            return successCount;
+        }
+
+        void setSuccessCount(int successCount) {
+            this.successCount = successCount;
+        }
+
+        public List<Long> getFailedIds() {
+            return failedIds;
+        }
+
+        public List<String> getErrors() {
+            return errors;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package org.example.finance_management_system.service;
+
+import org.example.finance_management_system.dto.request.TransactionCursor;
+import org.example.finance_management_system.dto.request.TransferRequest;
+import org.example.finance_management_system.dto.response.TransferResponse;
+import org.example.finance_management_system.exception.BadRequestException;
+import org.example.finance_management_system.exception.ForbiddenException;
+import org.example.finance_management_system.model.Account;
+import org.example.finance_management_system.model.LedgerEntry;
+import org.example.finance_management_system.model.Transaction;
+import org.example.finance_management_system.model.Transfer;
+import org.example.finance_management_system.repository.AccountRepository;
+import org.example.finance_management_system.repository.TransactionRepository;
+import org.example.finance_management_system.repository.TransferRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Moves money between two accounts of the same user. The ledger posting, the transfer record,
+ * both transaction legs and the daily rollup are written in one database transaction.
+ */
+@Service
+public class TransferService {
+
+    private static final Comparator<Transfer> NEWEST_FIRST =
+            Comparator.comparing(Transfer::getDate).thenComparing(Transfer::getId).reversed();
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private EntityLookupCache entityLookupCache;
+
+    @Autowired
+    private DailyTotalsService dailyTotalsService;
+
+    /**
+     * Transfer between two of the user's accounts, recorded as a transfer plus an EXPENSE and an
+     * INCOME transaction in the TRANSFER category.
+     */
+    @Transactional
+    public Transfer transfer(TransferRequest request, Long userId, String idempotencyKey) {
+        return transfer(request, userId, idempotencyKey, true);
+    }
+
+    /**
+     * Transfer between two of the user's accounts through the ledger. Ownership comes from the
+     * lookup cache and the funds check is part of the balance UPDATE, so the accounts are only
+     * read once, after the balances have moved.
+     *
+     * @param idempotencyKey     the client's Idempotency-Key, or null; a transfer without one gets
+     *                           a random posting key and is not deduplicated by the ledger
+     * @param recordTransactions also write the two TRANSFER transactions and their rollup
+     */
+    @Transactional
+    public Transfer transfer(TransferRequest request, Long userId, String idempotencyKey,
+                             boolean recordTransactions) {
+        Long fromAccountId = request.getFromAccountId();
+        Long toAccountId = request.getToAccountId();
+        if (fromAccountId.equals(toAccountId)) {
+            throw new BadRequestException("Source and destination accounts must be different");
+        }
+        if (!entityLookupCache.isAccountOwnedBy(fromAccountId, userId)
+                || !entityLookupCache.isAccountOwnedBy(toAccountId, userId)) {
+            throw new ForbiddenException("You don't have permission to access these accounts");
+        }
+
+        boolean posted = ledgerService.post(new LedgerService.Posting(postingKey(userId, idempotencyKey),
+                LedgerEntry.PostingType.TRANSFER, userId, request.getDescription())
+                .move(LedgerEntry.Book.ACCOUNT, fromAccountId, LedgerEntry.Book.ACCOUNT, toAccountId,
+                        request.getAmount()));
+        if (!posted) {
+            // Retried after the stored idempotent response expired: the money already moved
+            throw new BadRequestException("This transfer has already been processed");
+        }
+
+        Map<Long, Account> accounts = new HashMap<>();
+        for (Account account : accountRepository.findAllById(List.of(fromAccountId, toAccountId))) {
+            accounts.put(account.getId(), account);
+        }
+        Account fromAccount = accounts.get(fromAccountId);
+        Account toAccount = accounts.get(toAccountId);
+
+        LocalDateTime now = LocalDateTime.now();
+
+        Transfer transfer = new Transfer();
+        transfer.setSourceAccount(fromAccount);
+        transfer.setDestinationAccount(toAccount);
+        transfer.setAmount(request.getAmount());
+        transfer.setDescription(request.getDescription());
+        transfer.setDate(now);
+        transfer.setUser(fromAccount.getUser());
+        transferRepository.save(transfer);
+
+        if (recordTransactions) {
+            // Transfers are recorded as an EXPENSE leg and an INCOME leg in the TRANSFER category
+            Transaction outgoingTransaction = transferLeg(Transaction.TransactionType.EXPENSE, fromAccount,
+                    request.getDescription() + " (Transfer to " + toAccount.getName() + ")", request.getAmount(), now);
+            Transaction incomingTransaction = transferLeg(Transaction.TransactionType.INCOME, toAccount,
+                    request.getDescription() + " (Transfer from " + fromAccount.getName() + ")", request.getAmount(), now);
+            transactionRepository.save(outgoingTransaction);
+            transactionRepository.save(incomingTransaction);
+
+            DailyTotalsService.Changes rollup = new DailyTotalsService.Changes();
+            rollup.add(outgoingTransaction);
+            rollup.add(incomingTransaction);
+            dailyTotalsService.apply(rollup);
+        }
+
+        return transfer;
+    }
+
+    // transfer:<userId>:<key>, with the key hashed when it would not fit the posting key column
+    static String postingKey(Long userId, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return "transfer:" + UUID.randomUUID();
+        }
+        String key = "transfer:" + userId + ":" + idempotencyKey;
+        if (key.length() <= LedgerService.MAX_KEY_LENGTH) {
+            return key;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(idempotencyKey.getBytes(StandardCharsets.UTF_8));
+            return "transfer:" + userId + ":sha256:" + HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static Transaction transferLeg(Transaction.TransactionType type, Account account, String description,
+                                           BigDecimal amount, LocalDateTime date) {
+        Transaction transaction = new Transaction();
+        transaction.setAmount(amount);
+        transaction.setType(type);
+        transaction.setDescription(description);
+        transaction.setAccount(account);
+        transaction.setCategory(Transaction.Category.TRANSFER);
+        transaction.setDate(date);
+        transaction.setUser(account.getUser());
+        transaction.setNotes("");
+        return transaction;
+    }
+
+    /**
+     * Transfers into or out of an account, newest first, strictly after the cursor when one is
+     * given and at most {@code limit} of them (all when limit is 0). Each side is read with its
+     * own index-backed query limited to {@code limit} rows, so the cost depends only on the
+     * account's own transfers.
+     */
+    @Transactional(readOnly = true)
+    public List<TransferResponse> accountTransfers(Long accountId, TransactionCursor after, int limit) {
+        Pageable page = limit > 0 ? PageRequest.of(0, limit) : Pageable.unpaged();
+
+        List<Transfer> outgoing;
+        List<Transfer> incoming;
+        if (after == null) {
+            outgoing = transferRepository.findOutgoingByAccountId(accountId, page);
+            incoming = transferRepository.findIncomingByAccountId(accountId, page);
+        } else {
+            outgoing = transferRepository.findOutgoingByAccountIdAfterCursor(
+                    accountId, after.getDate(), after.getId(), page);
+            incoming = transferRepository.findIncomingByAccountIdAfterCursor(
+                    accountId, after.getDate(), after.getId(), page);
+        }
+
+        List<Transfer> all = new ArrayList<>(outgoing.size() + incoming.size());
+        all.addAll(outgoing);
+        all.addAll(incoming);
+        all.sort(NEWEST_FIRST);
+
+        // A transfer from an account to itself comes back from both sides; keep one copy
+        Map<Long, TransferResponse> merged = new LinkedHashMap<>();
+        for (Transfer transfer : all) {
+            if (limit > 0 && merged.size() == limit) {
+                break;
+            }
+            merged.computeIfAbsent(transfer.getId(), id -> TransferResponse.fromEntity(transfer));
+        }
+        return new ArrayList<>(merged.values());
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.finance_management_system.dto.request;
+
+import org.example.finance_management_system.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetPageTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    @Test
+    void sizeIsClampedToTheAllowedRange() {
+        assertThat(KeysetPage.size(null)).isEqualTo(KeysetPage.DEFAULT_SIZE);
+        assertThat(KeysetPage.size(0)).isEqualTo(1);
+        assertThat(KeysetPage.size(10_000)).isEqualTo(KeysetPage.MAX_SIZE);
+        assertThat(KeysetPage.size(20)).isEqualTo(20);
+    }
+
+    @Test
+    void extraRowIsTrimmedAndBecomesTheNextCursor() {
+        KeysetPage<Long> page = KeysetPage.of(List.of(5L, 4L, 3L), 2, id -> new TransactionCursor(DAY, id));
+
+        assertThat(page.getRows()).containsExactly(5L, 4L);
+        assertThat(page.hasMore()).isTrue();
+        TransactionCursor next = KeysetPage.after(page.getNextCursor());
+        assertThat(next.getId()).isEqualTo(4L);
+        assertThat(next.getDate()).isEqualTo(DAY);
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        KeysetPage<Long> page = KeysetPage.of(List.of(2L, 1L), 2, id -> new TransactionCursor(DAY, id));
+
+        assertThat(page.getRows()).containsExactly(2L, 1L);
+        assertThat(page.hasMore()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void missingCursorStartsAtTheFirstPage() {
+        assertThat(KeysetPage.after(null)).isNull();
+        assertThat(KeysetPage.after("")).isNull();
+        assertThatThrownBy(() -> KeysetPage.after("not a cursor")).isInstanceOf(BadRequestException.class);
+    }
+}
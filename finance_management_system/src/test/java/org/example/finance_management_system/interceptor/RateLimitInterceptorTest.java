@@ -0,0 +1,101 @@
+package org.example.finance_management_system.interceptor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitInterceptorTest {
+
+    private static final long WINDOW_MS = 1000;
+
+    @Test
+    void limitOfOneAllowsOneRequestPerWindow() {
+        RateLimitInterceptor.SlidingWindow window = new RateLimitInterceptor.SlidingWindow();
+
+        assertThat(window.tryAcquire(0, WINDOW_MS, 1)).isZero();
+        // The current window is full, and the next one still carries its full weight at the start
+        assertThat(window.tryAcquire(500, WINDOW_MS, 1)).isEqualTo(1500);
+        assertThat(window.tryAcquire(1999, WINDOW_MS, 1)).isEqualTo(1);
+        assertThat(window.tryAcquire(2000, WINDOW_MS, 1)).isZero();
+    }
+
+    @Test
+    void fullWindowWaitsUntilPreviousWeightDecays() {
+        RateLimitInterceptor.SlidingWindow window = new RateLimitInterceptor.SlidingWindow();
+        for (int i = 0; i < 10; i++) {
+            assertThat(window.tryAcquire(i, WINDOW_MS, 10)).isZero();
+        }
+
+        long waitMs = window.tryAcquire(100, WINDOW_MS, 10);
+        assertThat(waitMs).isEqualTo(1000);
+        assertThat(window.tryAcquire(100 + waitMs - 1, WINDOW_MS, 10)).isPositive();
+        assertThat(window.tryAcquire(100 + waitMs, WINDOW_MS, 10)).isZero();
+    }
+
+    @Test
+    void rolloverCarriesWeightedPreviousCount() {
+        RateLimitInterceptor.SlidingWindow window = new RateLimitInterceptor.SlidingWindow();
+        for (int i = 0; i < 10; i++) {
+            window.tryAcquire(0, WINDOW_MS, 10);
+        }
+
+        // At the start of the next window the previous count still weighs in fully
+        assertThat(window.tryAcquire(1000, WINDOW_MS, 10)).isEqualTo(100);
+        // A quarter into the window 7.5 of the previous requests remain, leaving room for two
+        assertThat(window.tryAcquire(1250, WINDOW_MS, 10)).isZero();
+        assertThat(window.tryAcquire(1250, WINDOW_MS, 10)).isZero();
+
+        // Room for the next request opens 300ms into the window; the wait may round up by 1ms
+        long waitMs = window.tryAcquire(1250, WINDOW_MS, 10);
+        assertThat(waitMs).isBetween(50L, 51L);
+        assertThat(window.tryAcquire(1290, WINDOW_MS, 10)).isPositive();
+        assertThat(window.tryAcquire(1250 + waitMs, WINDOW_MS, 10)).isZero();
+    }
+
+    @Test
+    void idleWindowResetsTheCount() {
+        RateLimitInterceptor.SlidingWindow window = new RateLimitInterceptor.SlidingWindow();
+        for (int i = 0; i < 10; i++) {
+            window.tryAcquire(0, WINDOW_MS, 10);
+        }
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(window.tryAcquire(2500, WINDOW_MS, 10)).isZero();
+        }
+        assertThat(window.tryAcquire(2500, WINDOW_MS, 10)).isPositive();
+    }
+
+    @Test
+    void concurrentCallersNeverExceedTheLimit() throws Exception {
+        RateLimitInterceptor.SlidingWindow window = new RateLimitInterceptor.SlidingWindow();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Integer>> callers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                callers.add(() -> {
+                    int allowed = 0;
+                    for (int i = 0; i < 1000; i++) {
+                        if (window.tryAcquire(500, WINDOW_MS, 100) == 0) {
+                            allowed++;
+                        }
+                    }
+                    return allowed;
+                });
+            }
+            int total = 0;
+            for (Future<Integer> result : executor.invokeAll(callers)) {
+                total += result.get();
+            }
+            assertThat(total).isEqualTo(100);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
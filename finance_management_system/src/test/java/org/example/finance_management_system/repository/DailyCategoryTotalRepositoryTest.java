@@ -0,0 +1,61 @@
+package org.example.finance_management_system.repository;
+
+import org.example.finance_management_system.model.DailyCategoryTotal;
+import org.example.finance_management_system.model.Transaction;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class DailyCategoryTotalRepositoryTest {
+
+    private static final DailyCategoryTotal.Key LUNCH = new DailyCategoryTotal.Key(
+            7L, LocalDate.of(2024, 3, 1), 3L, Transaction.TransactionType.EXPENSE, Transaction.Category.FOOD);
+
+    private static final DailyCategoryTotal.Key SALARY = new DailyCategoryTotal.Key(
+            7L, LocalDate.of(2024, 3, 1), 3L, Transaction.TransactionType.INCOME, Transaction.Category.INCOME);
+
+    @Autowired
+    private DailyCategoryTotalRepository dailyCategoryTotalRepository;
+
+    @Test
+    void upsertAddsToTheExistingRow() {
+        dailyCategoryTotalRepository.applyDeltas(List.of(delta(LUNCH, "12.50", 1)));
+        dailyCategoryTotalRepository.applyDeltas(List.of(delta(LUNCH, "7.50", 1)));
+
+        assertThat(dailyCategoryTotalRepository.findAll()).singleElement().satisfies(row -> {
+            assertThat(row.getTotal()).isEqualByComparingTo("20.00");
+            assertThat(row.getCount()).isEqualTo(2);
+        });
+    }
+
+    @Test
+    void rowsLeftWithoutTransactionsAreDeleted() {
+        dailyCategoryTotalRepository.applyDeltas(List.of(delta(LUNCH, "12.50", 1), delta(SALARY, "900.00", 1)));
+
+        // Deleting the only lunch and editing the salary amount in one step
+        dailyCategoryTotalRepository.applyDeltas(List.of(
+                delta(LUNCH, "-12.50", -1), delta(SALARY, "-900.00", -1), delta(SALARY, "950.00", 1)));
+
+        List<DailyCategoryTotal> rows = dailyCategoryTotalRepository.findAll();
+        assertThat(rows).singleElement().satisfies(row -> {
+            assertThat(row.getType()).isEqualTo(Transaction.TransactionType.INCOME);
+            assertThat(row.getTotal()).isEqualByComparingTo("950.00");
+            assertThat(row.getCount()).isEqualTo(1);
+        });
+    }
+
+    private static DailyCategoryTotal.Delta delta(DailyCategoryTotal.Key key, String total, long count) {
+        return new DailyCategoryTotal.Delta(key, new BigDecimal(total), count);
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.finance_management_system.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.finance_management_system.dto.response.TransactionResponse;
+import org.example.finance_management_system.model.Account;
+import org.example.finance_management_system.model.Transaction;
+import org.example.finance_management_system.model.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The transaction listings build their rows in the SELECT itself, so they must issue exactly one
+ * statement however many rows, accounts and users are involved (no lazy loads per row).
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TransactionRepositoryStatementCountTest {
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        user = new User();
+        user.setUsername("lister");
+        user.setEmail("lister@example.com");
+        user.setPassword("secret");
+        user.setFullName("Statement Counter");
+        entityManager.persist(user);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 60})
+    void listingIssuesOneStatement(int rows) {
+        insertTransactions(rows);
+
+        List<TransactionResponse> responses = transactionRepository.findResponsesByUserId(user.getId());
+
+        assertThat(responses).hasSize(rows);
+        assertThat(responses).allSatisfy(response -> assertThat(response.getAccountName()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 60})
+    void pageIssuesOneStatement(int rows) {
+        insertTransactions(rows);
+
+        List<TransactionResponse> page = transactionRepository.findFirstPageByUserId(
+                user.getId(), null, null, null, PageRequest.of(0, 51));
+
+        assertThat(page).hasSize(Math.min(rows, 51));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void cursorPageIssuesOneStatement() {
+        insertTransactions(60);
+
+        List<TransactionResponse> page = transactionRepository.findPageByUserIdAfterCursor(
+                user.getId(), null, null, null, LocalDateTime.of(2024, 3, 1, 0, 0).plusHours(30), Long.MAX_VALUE,
+                PageRequest.of(0, 51));
+
+        assertThat(page).hasSize(31);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    // Rows are spread over several accounts so that per-row account loads would be visible;
+    // the persistence context is cleared and the counters reset before the query under test
+    private void insertTransactions(int rows) {
+        Account[] accounts = new Account[3];
+        for (int i = 0; i < accounts.length; i++) {
+            Account account = new Account();
+            account.setName("Account " + i);
+            account.setType(Account.AccountType.BANK);
+            account.setBalance(BigDecimal.ZERO);
+            account.setUser(user);
+            accounts[i] = entityManager.persist(account);
+        }
+        LocalDateTime start = LocalDateTime.of(2024, 3, 1, 0, 0);
+        for (int i = 0; i < rows; i++) {
+            Transaction transaction = new Transaction();
+            transaction.setDescription("Row " + i);
+            transaction.setAmount(new BigDecimal("10.00"));
+            transaction.setType(Transaction.TransactionType.EXPENSE);
+            transaction.setCategory(Transaction.Category.FOOD);
+            transaction.setDate(start.plusHours(i));
+            transaction.setUser(user);
+            transaction.setAccount(accounts[i % accounts.length]);
+            entityManager.persist(transaction);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.finance_management_system.service;
+
+import org.example.finance_management_system.dto.request.AccountRequest;
+import org.example.finance_management_system.metrics.FinanceMetrics;
+import org.example.finance_management_system.model.Account;
+import org.example.finance_management_system.model.LedgerEntry;
+import org.example.finance_management_system.model.User;
+import org.example.finance_management_system.repository.AccountRepository;
+import org.example.finance_management_system.repository.LedgerEntryRepository;
+import org.example.finance_management_system.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AccountServiceTest {
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AccountService accountService = new AccountService();
+
+    private final LedgerService ledgerService = new LedgerService();
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        ledgerEntryRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+
+        user = new User();
+        user.setUsername("owner");
+        user.setEmail("owner@example.com");
+        user.setPassword("secret");
+        user.setFullName("Account Owner");
+        userRepository.save(user);
+
+        BalanceHistoryService balanceHistoryService = mock(BalanceHistoryService.class, withSettings().stubOnly());
+        ReflectionTestUtils.setField(ledgerService, "ledgerEntryRepository", ledgerEntryRepository);
+        ReflectionTestUtils.setField(ledgerService, "accountRepository", accountRepository);
+        ReflectionTestUtils.setField(ledgerService, "balanceHistoryService", balanceHistoryService);
+        ReflectionTestUtils.setField(ledgerService, "financeMetrics",
+                mock(FinanceMetrics.class, withSettings().stubOnly()));
+        ReflectionTestUtils.setField(accountService, "accountRepository", accountRepository);
+        ReflectionTestUtils.setField(accountService, "ledgerService", ledgerService);
+        ReflectionTestUtils.setField(accountService, "balanceHistoryService", balanceHistoryService);
+    }
+
+    @Test
+    void openingBalanceAndManualCorrectionsAreJournaled() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Account created = transaction.execute(status ->
+                accountService.createAccount(request("Card", "-120.00"), user));
+        assertThat(created.getBalance()).isEqualByComparingTo("-120.00");
+        assertReconciles(created.getId(), "-120.00");
+
+        Account loaded = accountRepository.findById(created.getId()).orElseThrow();
+        Account updated = transaction.execute(status ->
+                accountService.updateAccount(loaded, request("Credit card", "-80.00")));
+        assertThat(updated.getBalance()).isEqualByComparingTo("-80.00");
+        assertReconciles(created.getId(), "-80.00");
+        assertThat(accountRepository.findById(created.getId()).orElseThrow().getName()).isEqualTo("Credit card");
+    }
+
+    @Test
+    void correctionIsTakenFromTheLockedBalanceNotAStaleCopy() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Account created = transaction.execute(status -> accountService.createAccount(request("Cash", "50.00"), user));
+        Account stale = accountRepository.findById(created.getId()).orElseThrow();
+
+        // An expense lands after the edit form was loaded
+        transaction.executeWithoutResult(status -> ledgerService.post(new LedgerService.Posting("expense",
+                LedgerEntry.PostingType.TRANSACTION, user.getId(), "Lunch")
+                .allowOverdraft().external(created.getId(), new BigDecimal("-20.00"))));
+
+        transaction.execute(status -> accountService.updateAccount(stale, request("Cash", "100.00")));
+
+        assertReconciles(created.getId(), "100.00");
+    }
+
+    private void assertReconciles(Long accountId, String balance) {
+        Account account = accountRepository.findById(accountId).orElseThrow();
+        assertThat(account.getBalance()).isEqualByComparingTo(balance);
+        assertThat(ledgerService.reconcile(account).getDifference()).isEqualByComparingTo("0.00");
+    }
+
+    private static AccountRequest request(String name, String balance) {
+        return new AccountRequest(name, Account.AccountType.CREDIT_CARD, new BigDecimal(balance), null, null);
+    }
+}
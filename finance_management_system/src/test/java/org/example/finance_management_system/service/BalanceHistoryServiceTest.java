@@ -0,0 +1,202 @@
+package org.example.finance_management_system.service;
+
+import org.example.finance_management_system.dto.response.BalancePointResponse;
+import org.example.finance_management_system.metrics.FinanceMetrics;
+import org.example.finance_management_system.model.Account;
+import org.example.finance_management_system.model.AccountBalanceSnapshot;
+import org.example.finance_management_system.model.LedgerEntry;
+import org.example.finance_management_system.model.User;
+import org.example.finance_management_system.repository.AccountBalanceSnapshotRepository;
+import org.example.finance_management_system.repository.AccountRepository;
+import org.example.finance_management_system.repository.LedgerEntryRepository;
+import org.example.finance_management_system.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Balances written through the ledger and read back as balance-at and balance-series points.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BalanceHistoryServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private AccountBalanceSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final BalanceHistoryService balanceHistoryService = new BalanceHistoryService();
+
+    private final LedgerService ledgerService = new LedgerService();
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        snapshotRepository.deleteAll();
+        ledgerEntryRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+
+        user = new User();
+        user.setUsername("history");
+        user.setEmail("history@example.com");
+        user.setPassword("secret");
+        user.setFullName("History User");
+        userRepository.save(user);
+
+        ReflectionTestUtils.setField(balanceHistoryService, "snapshotRepository", snapshotRepository);
+        ReflectionTestUtils.setField(ledgerService, "ledgerEntryRepository", ledgerEntryRepository);
+        ReflectionTestUtils.setField(ledgerService, "accountRepository", accountRepository);
+        ReflectionTestUtils.setField(ledgerService, "balanceHistoryService", balanceHistoryService);
+        ReflectionTestUtils.setField(ledgerService, "financeMetrics",
+                mock(FinanceMetrics.class, withSettings().stubOnly()));
+    }
+
+    @Test
+    void sameDayWriteMovesTodaysCheckpoint() {
+        Account account = account(TODAY, "100.00");
+        checkpoint(account, TODAY, "100.00");
+
+        post(account, "-30.00", TODAY);
+
+        assertThat(balanceAt(account, TODAY)).isEqualByComparingTo("70.00");
+        // Before the day it was opened the account held nothing
+        assertThat(series(account, TODAY.minusDays(1), TODAY, BalanceHistoryService.Step.DAY))
+                .extracting(BalancePointResponse::getBalance)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(BigDecimal.ZERO, new BigDecimal("70.00"));
+    }
+
+    @Test
+    void backdatedWriteCorrectsEveryCheckpointFromItsDay() {
+        Account account = account(TODAY.minusDays(10), "150.00");
+        checkpoint(account, TODAY.minusDays(10), "100.00");
+        checkpoint(account, TODAY.minusDays(5), "150.00");
+        checkpoint(account, TODAY, "150.00");
+
+        post(account, "-20.00", TODAY.minusDays(7));
+
+        assertThat(accountRepository.findById(account.getId()).orElseThrow().getBalance())
+                .isEqualByComparingTo("130.00");
+        assertThat(series(account, TODAY.minusDays(10), TODAY, BalanceHistoryService.Step.DAY))
+                .extracting(BalancePointResponse::getBalance)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(amounts("100.00", "100.00", "100.00", "80.00", "80.00",
+                        "130.00", "130.00", "130.00", "130.00", "130.00", "130.00"));
+        assertThat(series(account, TODAY.minusDays(10), TODAY, BalanceHistoryService.Step.WEEK))
+                .extracting(BalancePointResponse::getBalance)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(amounts("100.00", "130.00"));
+    }
+
+    @Test
+    void backdatedWriteBeforeTheOpeningDayStartsFromZero() {
+        Account account = account(TODAY.minusDays(3), "100.00");
+        checkpoint(account, TODAY.minusDays(3), "100.00");
+
+        post(account, "50.00", TODAY.minusDays(6));
+
+        assertThat(balanceAt(account, TODAY.minusDays(7))).isEqualByComparingTo("0.00");
+        assertThat(balanceAt(account, TODAY.minusDays(6))).isEqualByComparingTo("50.00");
+        assertThat(balanceAt(account, TODAY.minusDays(3))).isEqualByComparingTo("150.00");
+    }
+
+    @Test
+    void datesBeforeTheFirstCheckpointOfAnOlderAccountAreUnknown() {
+        // Opened long before checkpoints were kept
+        Account account = account(TODAY.minusDays(30), "150.00");
+        assertThat(balanceAt(account, TODAY.minusDays(1))).isNull();
+        assertThat(balanceAt(account, TODAY)).isEqualByComparingTo("150.00");
+
+        checkpoint(account, TODAY.minusDays(5), "150.00");
+        post(account, "-20.00", TODAY.minusDays(10));
+
+        // The later checkpoint is corrected, but the day itself still has no known start
+        assertThat(balanceAt(account, TODAY.minusDays(10))).isNull();
+        assertThat(series(account, TODAY.minusDays(6), TODAY.minusDays(5), BalanceHistoryService.Step.DAY))
+                .extracting(BalancePointResponse::getBalance)
+                .containsExactly(null, new BigDecimal("130.00"));
+    }
+
+    private Account account(LocalDate opened, String balance) {
+        Account account = new Account();
+        account.setName("Account " + opened);
+        account.setType(Account.AccountType.BANK);
+        account.setBalance(new BigDecimal(balance));
+        account.setUser(user);
+        accountRepository.save(account);
+        // created_at is set on insert; move it back to the day the account was opened
+        account.setCreatedAt(opened.atTime(9, 0));
+        return accountRepository.save(account);
+    }
+
+    private void checkpoint(Account account, LocalDate date, String balance) {
+        AccountBalanceSnapshot snapshot = new AccountBalanceSnapshot();
+        snapshot.setAccountId(account.getId());
+        snapshot.setSnapshotDate(date);
+        snapshot.setBalance(new BigDecimal(balance));
+        snapshot.setUpdatedAt(LocalDateTime.now());
+        snapshotRepository.save(snapshot);
+    }
+
+    private void post(Account account, String amount, LocalDate date) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> ledgerService.post(
+                new LedgerService.Posting("test:" + UUID.randomUUID(), LedgerEntry.PostingType.TRANSACTION,
+                        user.getId(), "Test").allowOverdraft().external(account.getId(), new BigDecimal(amount), date)));
+    }
+
+    private BigDecimal balanceAt(Account account, LocalDate date) {
+        return balanceHistoryService.balanceAt(reload(account), date).getBalance();
+    }
+
+    private List<BalancePointResponse> series(Account account, LocalDate from, LocalDate to,
+                                              BalanceHistoryService.Step step) {
+        return balanceHistoryService.series(reload(account), from, to, step);
+    }
+
+    private Account reload(Account account) {
+        return accountRepository.findById(account.getId()).orElseThrow();
+    }
+
+    private static BigDecimal[] amounts(String... values) {
+        BigDecimal[] amounts = new BigDecimal[values.length];
+        for (int i = 0; i < values.length; i++) {
+            amounts[i] = new BigDecimal(values[i]);
+        }
+        return amounts;
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.finance_management_system.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.finance_management_system.config.IdempotencyProperties;
+import org.example.finance_management_system.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    private static final Long USER_ID = 7L;
+    private static final String KEY = "pay-installment-1";
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Spy
+    private IdempotencyProperties properties = new IdempotencyProperties();
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService.init();
+        idempotencyService.complete(USER_ID, KEY, "/loans/1/pay/1", "hash-a", 200, "{\"id\":1}");
+    }
+
+    @Test
+    void sameRequestIsReplayed() {
+        IdempotencyService.Claim claim = idempotencyService.claim(USER_ID, KEY, "/loans/1/pay/1", "hash-a");
+
+        assertThat(claim.outcome()).isEqualTo(IdempotencyService.Outcome.REPLAY);
+        assertThat(claim.response().body()).isEqualTo("{\"id\":1}");
+    }
+
+    @Test
+    void samePatternWithAnotherPathIsRejected() {
+        IdempotencyService.Claim claim = idempotencyService.claim(USER_ID, KEY, "/loans/2/pay/1", "hash-a");
+
+        assertThat(claim.outcome()).isEqualTo(IdempotencyService.Outcome.REQUEST_MISMATCH);
+        assertThat(claim.response()).isNull();
+    }
+
+    @Test
+    void samePathWithAnotherBodyIsRejected() {
+        IdempotencyService.Claim claim = idempotencyService.claim(USER_ID, KEY, "/loans/1/pay/1", "hash-b");
+
+        assertThat(claim.outcome()).isEqualTo(IdempotencyService.Outcome.REQUEST_MISMATCH);
+    }
+}
@@ -0,0 +1,210 @@
+package org.example.finance_management_system.service;
+
+import org.example.finance_management_system.exception.BadRequestException;
+import org.example.finance_management_system.metrics.FinanceMetrics;
+import org.example.finance_management_system.model.Account;
+import org.example.finance_management_system.model.LedgerEntry;
+import org.example.finance_management_system.model.User;
+import org.example.finance_management_system.repository.AccountRepository;
+import org.example.finance_management_system.repository.LedgerEntryRepository;
+import org.example.finance_management_system.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Postings against a real database, each in its own transaction like a request would run them,
+ * so rejected postings can be checked for leaving nothing behind.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LedgerServiceTest {
+
+    private static final Long LOAN_ID = 11L;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long userId;
+    private Long firstAccountId;
+    private Long secondAccountId;
+
+    @BeforeEach
+    void setUp() {
+        ledgerEntryRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = new User();
+        user.setUsername("ledger");
+        user.setEmail("ledger@example.com");
+        user.setPassword("secret");
+        user.setFullName("Ledger User");
+        userId = userRepository.save(user).getId();
+        firstAccountId = accountRepository.save(account(user, "First", "100.00")).getId();
+        secondAccountId = accountRepository.save(account(user, "Second", "0.00")).getId();
+    }
+
+    @Test
+    void unbalancedPostingIsRejectedBeforeAnythingIsWritten() {
+        LedgerService.Posting posting = transfer("unbalanced", firstAccountId, secondAccountId, "10.00");
+        @SuppressWarnings("unchecked")
+        List<LedgerService.Line> lines = (List<LedgerService.Line>) ReflectionTestUtils.getField(posting, "lines");
+        lines.add(new LedgerService.Line(LedgerEntry.Book.ACCOUNT, secondAccountId, new BigDecimal("1.00"),
+                LocalDate.now()));
+
+        assertThatThrownBy(() -> inTransaction(() -> ledgerService().post(posting)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("not balanced");
+        assertThatThrownBy(() -> inTransaction(() -> ledgerService().post(new LedgerService.Posting(
+                "empty", LedgerEntry.PostingType.TRANSFER, userId, "Nothing"))))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(ledgerEntryRepository.count()).isZero();
+        assertThat(balanceOf(firstAccountId)).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    void postAllSkipsKeysThatWereAlreadyPosted() {
+        inTransaction(() -> ledgerService().post(transfer("first", firstAccountId, secondAccountId, "10.00")));
+
+        List<LedgerService.Posting> applied = inTransaction(() -> ledgerService().postAll(List.of(
+                transfer("first", firstAccountId, secondAccountId, "10.00"),
+                transfer("second", firstAccountId, secondAccountId, "5.00"),
+                transfer("second", firstAccountId, secondAccountId, "5.00"))));
+
+        assertThat(applied).extracting(LedgerService.Posting::getKey).containsExactly("second");
+        assertThat(ledgerEntryRepository.count()).isEqualTo(4);
+        assertThat(balanceOf(firstAccountId)).isEqualByComparingTo("85.00");
+        assertThat(balanceOf(secondAccountId)).isEqualByComparingTo("15.00");
+    }
+
+    @Test
+    void duplicateThatSlipsPastTheKeyLookupIsRejectedByTheUniqueIndex() {
+        inTransaction(() -> ledgerService().post(transfer("raced", firstAccountId, secondAccountId, "10.00")));
+
+        // A second writer whose lookup ran before the first one committed
+        LedgerEntryRepository racing = mock(LedgerEntryRepository.class, delegatesTo(ledgerEntryRepository));
+        doReturn(List.of()).when(racing).findExistingPostingKeys(any());
+        LedgerService late = ledgerService();
+        ReflectionTestUtils.setField(late, "ledgerEntryRepository", racing);
+
+        assertThatThrownBy(() -> inTransaction(() -> late.post(
+                transfer("raced", firstAccountId, secondAccountId, "10.00"))))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("This operation has already been processed");
+
+        assertThat(ledgerEntryRepository.count()).isEqualTo(2);
+        assertThat(balanceOf(firstAccountId)).isEqualByComparingTo("90.00");
+        assertThat(balanceOf(secondAccountId)).isEqualByComparingTo("10.00");
+    }
+
+    @Test
+    void overdraftRefusesTheWholeBatch() {
+        // The first posting alone is covered; the second one takes the second account below zero
+        List<LedgerService.Posting> batch = List.of(
+                transfer("covered", firstAccountId, secondAccountId, "30.00"),
+                new LedgerService.Posting("uncovered", LedgerEntry.PostingType.LOAN_PAYMENT, userId, "Payment")
+                        .move(LedgerEntry.Book.ACCOUNT, secondAccountId, LedgerEntry.Book.LOAN, LOAN_ID,
+                                new BigDecimal("50.00")));
+
+        assertThatThrownBy(() -> inTransaction(() -> ledgerService().postAll(batch)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Insufficient funds in the account");
+
+        assertThat(ledgerEntryRepository.count()).isZero();
+        assertThat(balanceOf(firstAccountId)).isEqualByComparingTo("100.00");
+        assertThat(balanceOf(secondAccountId)).isEqualByComparingTo("0.00");
+    }
+
+    @Test
+    void overdraftAllowedPostingMayTakeAnAccountBelowZero() {
+        inTransaction(() -> ledgerService().post(new LedgerService.Posting("expense", LedgerEntry.PostingType.TRANSACTION,
+                userId, "Card payment").allowOverdraft().external(secondAccountId, new BigDecimal("-25.00"))));
+
+        assertThat(balanceOf(secondAccountId)).isEqualByComparingTo("-25.00");
+        assertThat(ledgerEntryRepository.sumByBook(LedgerEntry.Book.EXTERNAL, userId)).isEqualByComparingTo("25.00");
+    }
+
+    @Test
+    void backfilledOpeningBalancesMakeEveryAccountReconcile() {
+        inTransaction(() -> ledgerService().post(transfer("before", firstAccountId, secondAccountId, "40.00")));
+
+        // Both balances were set before the ledger existed; only the transfer is journaled
+        assertThat(inTransaction(() -> ledgerService().backfillOpeningBalances())).isEqualTo(1);
+        assertThat(inTransaction(() -> ledgerService().backfillOpeningBalances())).isZero();
+
+        for (Long accountId : List.of(firstAccountId, secondAccountId)) {
+            Account account = accountRepository.findById(accountId).orElseThrow();
+            assertThat(ledgerService().reconcile(account).getDifference()).isEqualByComparingTo("0.00");
+        }
+        assertThat(ledgerEntryRepository.findExistingPostingKeys(List.of(LedgerService.openingKey(firstAccountId))))
+                .containsExactly(LedgerService.openingKey(firstAccountId));
+    }
+
+    private LedgerService ledgerService() {
+        LedgerService ledgerService = new LedgerService();
+        ReflectionTestUtils.setField(ledgerService, "ledgerEntryRepository", ledgerEntryRepository);
+        ReflectionTestUtils.setField(ledgerService, "accountRepository", accountRepository);
+        ReflectionTestUtils.setField(ledgerService, "balanceHistoryService",
+                mock(BalanceHistoryService.class, withSettings().stubOnly()));
+        ReflectionTestUtils.setField(ledgerService, "financeMetrics",
+                mock(FinanceMetrics.class, withSettings().stubOnly()));
+        return ledgerService;
+    }
+
+    private LedgerService.Posting transfer(String key, Long fromAccountId, Long toAccountId, String amount) {
+        return new LedgerService.Posting(key, LedgerEntry.PostingType.TRANSFER, userId, "Transfer")
+                .move(LedgerEntry.Book.ACCOUNT, fromAccountId, LedgerEntry.Book.ACCOUNT, toAccountId,
+                        new BigDecimal(amount));
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> work.get());
+    }
+
+    private BigDecimal balanceOf(Long accountId) {
+        return accountRepository.findById(accountId).orElseThrow().getBalance();
+    }
+
+    private static Account account(User user, String name, String balance) {
+        Account account = new Account();
+        account.setName(name);
+        account.setType(Account.AccountType.BANK);
+        account.setBalance(new BigDecimal(balance));
+        account.setUser(user);
+        return account;
+    }
+}
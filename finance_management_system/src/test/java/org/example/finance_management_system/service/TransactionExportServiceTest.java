@@ -0,0 +1,51 @@
+package org.example.finance_management_system.service;
+
+import org.example.finance_management_system.dto.response.TransactionResponse;
+import org.example.finance_management_system.model.Account;
+import org.example.finance_management_system.model.Transaction;
+import org.example.finance_management_system.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionExportServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @InjectMocks
+    private TransactionExportService exportService;
+
+    @Test
+    void csvQuotesTextAndLeavesMissingAccountColumnsEmpty() throws IOException {
+        LocalDateTime date = LocalDateTime.of(2024, 3, 1, 9, 30);
+        when(transactionRepository.streamByUserId(7L)).thenReturn(Stream.of(
+                new TransactionResponse(1L, "Lunch, with \"team\"", new BigDecimal("12.50"),
+                        Transaction.TransactionType.EXPENSE, Transaction.Category.FOOD, date, "alice",
+                        3L, "Wallet", Account.AccountType.CASH, ""),
+                new TransactionResponse(2L, "Orphan", new BigDecimal("5.00"),
+                        Transaction.TransactionType.INCOME, Transaction.Category.INCOME, date, "alice",
+                        null, null, null, "")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(7L, TransactionExportService.ExportFormat.CSV, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8).split("\n")).containsExactly(
+                "id,date,description,amount,type,category,accountId,accountName,accountType,notes",
+                "1,2024-03-01T09:30,\"Lunch, with \"\"team\"\"\",12.50,EXPENSE,FOOD,3,Wallet,CASH,",
+                "2,2024-03-01T09:30,Orphan,5.00,INCOME,INCOME,,,,");
+    }
+}
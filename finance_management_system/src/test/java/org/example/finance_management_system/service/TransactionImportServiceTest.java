@@ -0,0 +1,198 @@
+package org.example.finance_management_system.service;
+
+import jakarta.validation.Validation;
+import org.example.finance_management_system.dto.request.TransactionRequest;
+import org.example.finance_management_system.dto.response.ImportResultResponse;
+import org.example.finance_management_system.model.Account;
+import org.example.finance_management_system.model.LedgerEntry;
+import org.example.finance_management_system.model.Transaction;
+import org.example.finance_management_system.repository.AccountRepository;
+import org.example.finance_management_system.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionImportServiceTest {
+
+    private static final Long USER_ID = 7L;
+    private static final Long ACCOUNT_ID = 3L;
+    private static final LocalDate MARCH_1 = LocalDate.of(2024, 3, 1);
+    private static final LocalDate MARCH_2 = LocalDate.of(2024, 3, 2);
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private DailyTotalsService dailyTotalsService;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @InjectMocks
+    private TransactionImportService importService;
+
+    // batchInsert receives the chunk buffer, which is cleared after every flush
+    private final List<TransactionRequest> inserted = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(importService, "validator",
+                Validation.buildDefaultValidatorFactory().getValidator());
+        Account account = new Account();
+        account.setId(ACCOUNT_ID);
+        when(accountRepository.findByUserId(USER_ID)).thenReturn(List.of(account));
+        lenient().doAnswer(invocation -> inserted.addAll(invocation.getArgument(1)))
+                .when(transactionRepository).batchInsert(eq(USER_ID), anyList());
+    }
+
+    @Test
+    void csvImportsRowsAndPostsTheBalanceChangePerDay() throws IOException {
+        ImportResultResponse result = importCsv("""
+                description,amount,type,category,date,notes
+                Salary,"1,250.00",INCOME,INCOME,2024-03-01,"march, paid"
+                Groceries,42.10,expense,food,2024-03-02T18:30:00,
+                """);
+
+        assertThat(result.getTotalRows()).isEqualTo(2);
+        assertThat(result.getImportedCount()).isEqualTo(2);
+        assertThat(result.getErrors()).isEmpty();
+        assertThat(inserted.get(0).getAmount()).isEqualByComparingTo("1250.00");
+        assertThat(inserted.get(0).getNotes()).isEqualTo("march, paid");
+        assertThat(inserted.get(1).getType()).isEqualTo(Transaction.TransactionType.EXPENSE);
+        assertThat(inserted.get(1).getDate()).isEqualTo(LocalDateTime.of(2024, 3, 2, 18, 30));
+        ArgumentCaptor<LedgerService.Posting> posting = ArgumentCaptor.forClass(LedgerService.Posting.class);
+        verify(transactionService).postBalanceChanges(posting.capture());
+        // One line per account and day, so the balance history is corrected from each day on
+        assertThat(posting.getValue().getLines()).containsExactly(
+                new LedgerService.Line(LedgerEntry.Book.ACCOUNT, ACCOUNT_ID, new BigDecimal("1250.00"), MARCH_1),
+                new LedgerService.Line(LedgerEntry.Book.ACCOUNT, ACCOUNT_ID, new BigDecimal("-42.10"), MARCH_2),
+                new LedgerService.Line(LedgerEntry.Book.EXTERNAL, USER_ID, new BigDecimal("-1250.00"), MARCH_1),
+                new LedgerService.Line(LedgerEntry.Book.EXTERNAL, USER_ID, new BigDecimal("42.10"), MARCH_2));
+    }
+
+    @Test
+    void csvRejectsMissingAndCommaDecimalAmounts() throws IOException {
+        ImportResultResponse result = importCsv("""
+                description,amount,type,category
+                No amount,,EXPENSE,FOOD
+                Comma decimal,"12,50",EXPENSE,FOOD
+                Bad grouping,"1,2345.00",EXPENSE,FOOD
+                Fine,12.50,EXPENSE,FOOD
+                """);
+
+        assertThat(result.getTotalRows()).isEqualTo(4);
+        assertThat(result.getImportedCount()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(ImportResultResponse.RowError::getRow).containsExactly(1, 2, 3);
+        assertThat(result.getErrors().get(0).getMessage()).isEqualTo("Missing amount");
+        assertThat(result.getErrors().get(1).getMessage()).startsWith("Invalid amount: 12,50");
+        assertThat(inserted).singleElement()
+                .satisfies(row -> assertThat(row.getAmount()).isEqualByComparingTo("12.50"));
+    }
+
+    @Test
+    void csvReportsUnknownEnumsPerRow() throws IOException {
+        ImportResultResponse result = importCsv("""
+                description,amount,type,category
+                Lunch,9.00,EXPENSE,SNACKS
+                """);
+
+        assertThat(result.getFailedCount()).isEqualTo(1);
+        assertThat(result.getErrors().get(0).getMessage()).isEqualTo("Invalid Category: SNACKS");
+    }
+
+    @Test
+    void ofxReadsUnclosedSgmlElements() throws IOException {
+        ImportResultResponse result = importStatement(TransactionImportService.ImportFormat.OFX, """
+                OFXHEADER:100
+                <OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><BANKTRANLIST>
+                <STMTTRN><TRNTYPE>DEBIT<DTPOSTED>20240105120000.000[-5:EST]<TRNAMT>-15.25<NAME>Coffee shop<MEMO>card 1234</STMTTRN>
+                <STMTTRN><TRNTYPE>CREDIT<DTPOSTED>20240106<TRNAMT>200.00<MEMO>Refund</STMTTRN>
+                <STMTTRN><TRNTYPE>DEBIT<DTPOSTED>20240107<NAME>No amount</STMTTRN>
+                </BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>
+                """);
+
+        assertThat(result.getTotalRows()).isEqualTo(3);
+        assertThat(result.getImportedCount()).isEqualTo(2);
+        assertThat(result.getErrors()).singleElement()
+                .satisfies(error -> assertThat(error.getMessage()).isEqualTo("Missing amount"));
+
+        TransactionRequest coffee = inserted.get(0);
+        assertThat(coffee.getType()).isEqualTo(Transaction.TransactionType.EXPENSE);
+        assertThat(coffee.getAmount()).isEqualByComparingTo("15.25");
+        assertThat(coffee.getDescription()).isEqualTo("Coffee shop");
+        assertThat(coffee.getDate()).isEqualTo(LocalDateTime.of(2024, 1, 5, 12, 0));
+
+        TransactionRequest refund = inserted.get(1);
+        assertThat(refund.getType()).isEqualTo(Transaction.TransactionType.INCOME);
+        assertThat(refund.getDescription()).isEqualTo("Refund");
+        assertThat(refund.getAccountId()).isEqualTo(ACCOUNT_ID);
+    }
+
+    @Test
+    void qifReadsRecordsAndRejectsMissingAmount() throws IOException {
+        ImportResultResponse result = importStatement(TransactionImportService.ImportFormat.QIF, """
+                !Type:Bank
+                D3/ 7'24
+                T-1,024.50
+                PRent
+                ^
+                D12/31/2023
+                MInterest
+                T3.10
+                ^
+                D1/2/2024
+                PNo amount
+                ^
+                D1/3/2024
+                T4,50
+                PComma decimal
+                ^
+                """);
+
+        assertThat(result.getTotalRows()).isEqualTo(4);
+        assertThat(result.getImportedCount()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(ImportResultResponse.RowError::getRow).containsExactly(3, 4);
+        assertThat(result.getErrors().get(0).getMessage()).isEqualTo("Missing amount");
+
+        assertThat(inserted.get(0).getAmount()).isEqualByComparingTo("1024.50");
+        assertThat(inserted.get(0).getDate()).isEqualTo(LocalDateTime.of(2024, 3, 7, 0, 0));
+        assertThat(inserted.get(1).getDescription()).isEqualTo("Interest");
+        assertThat(inserted.get(1).getType()).isEqualTo(Transaction.TransactionType.INCOME);
+    }
+
+    private ImportResultResponse importCsv(String content) throws IOException {
+        return importStatement(TransactionImportService.ImportFormat.CSV, content);
+    }
+
+    private ImportResultResponse importStatement(TransactionImportService.ImportFormat format,
+                                                 String content) throws IOException {
+        return importService.importTransactions(
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), format, USER_ID, ACCOUNT_ID);
+    }
+}
@@ -0,0 +1,157 @@
+package org.example.finance_management_system.service;
+
+import org.example.finance_management_system.metrics.FinanceMetrics;
+import org.example.finance_management_system.model.Account;
+import org.example.finance_management_system.model.LedgerEntry;
+import org.example.finance_management_system.model.User;
+import org.example.finance_management_system.repository.AccountRepository;
+import org.example.finance_management_system.repository.LedgerEntryRepository;
+import org.example.finance_management_system.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Posts transaction balance changes from many writers against a real database: every writer
+ * touches the same two accounts in its own transaction, so lost updates or inconsistent lock
+ * ordering would show up as wrong balances, deadlocks or lock timeouts.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransactionServiceConcurrencyTest {
+
+    private static final int WRITERS = 32;
+    private static final int ROUNDS = 25;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final TransactionService transactionService = new TransactionService();
+
+    private final LedgerService ledgerService = new LedgerService();
+
+    private Long userId;
+    private Long firstAccountId;
+    private Long secondAccountId;
+
+    @BeforeEach
+    void setUp() {
+        ledgerEntryRepository.deleteAll();
+        accountRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = new User();
+        user.setUsername("writer");
+        user.setEmail("writer@example.com");
+        user.setPassword("secret");
+        user.setFullName("Concurrent Writer");
+        userId = userRepository.save(user).getId();
+        firstAccountId = accountRepository.save(account(user, "First")).getId();
+        secondAccountId = accountRepository.save(account(user, "Second")).getId();
+
+        ReflectionTestUtils.setField(ledgerService, "ledgerEntryRepository", ledgerEntryRepository);
+        ReflectionTestUtils.setField(ledgerService, "accountRepository", accountRepository);
+        ReflectionTestUtils.setField(ledgerService, "balanceHistoryService",
+                mock(BalanceHistoryService.class, withSettings().stubOnly()));
+        ReflectionTestUtils.setField(ledgerService, "financeMetrics",
+                mock(FinanceMetrics.class, withSettings().stubOnly()));
+        ReflectionTestUtils.setField(transactionService, "ledgerService", ledgerService);
+    }
+
+    @Test
+    void concurrentWritersOnTheSameAccountsLoseNoUpdates() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<Callable<Void>> writers = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                boolean even = w % 2 == 0;
+                int writer = w;
+                writers.add(() -> {
+                    start.await();
+                    for (int i = 0; i < ROUNDS; i++) {
+                        // Even writers list the accounts one way round, odd writers the other;
+                        // the ledger makes both lock the lower id first
+                        LedgerService.Posting posting = new LedgerService.Posting("writer:" + writer + ":" + i,
+                                LedgerEntry.PostingType.TRANSACTION, userId, "Concurrent write");
+                        if (even) {
+                            posting.external(firstAccountId, new BigDecimal("2.00"))
+                                    .external(secondAccountId, new BigDecimal("-1.00"));
+                        } else {
+                            posting.external(secondAccountId, new BigDecimal("5.00"))
+                                    .external(firstAccountId, new BigDecimal("-3.00"));
+                        }
+                        transaction.executeWithoutResult(status -> transactionService.postBalanceChanges(posting));
+                    }
+                    return null;
+                });
+            }
+            List<Future<Void>> results = new ArrayList<>();
+            for (Callable<Void> writer : writers) {
+                results.add(executor.submit(writer));
+            }
+            start.countDown();
+            for (Future<Void> result : results) {
+                // Rethrows any deadlock or lock timeout raised in a writer
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int perSide = WRITERS / 2 * ROUNDS;
+        assertThat(balanceOf(firstAccountId)).isEqualByComparingTo(
+                new BigDecimal("1000.00").add(new BigDecimal(perSide * 2 - perSide * 3)));
+        assertThat(balanceOf(secondAccountId)).isEqualByComparingTo(
+                new BigDecimal("1000.00").add(new BigDecimal(-perSide + perSide * 5)));
+        assertThat(ledgerEntryRepository.sumByBook(LedgerEntry.Book.ACCOUNT, firstAccountId))
+                .isEqualByComparingTo(new BigDecimal(perSide * 2 - perSide * 3));
+    }
+
+    private BigDecimal balanceOf(Long accountId) {
+        return accountRepository.findById(accountId).orElseThrow().getBalance();
+    }
+
+    private static Account account(User user, String name) {
+        Account account = new Account();
+        account.setName(name);
+        account.setType(Account.AccountType.BANK);
+        account.setBalance(new BigDecimal("1000.00"));
+        account.setUser(user);
+        return account;
+    }
+}
@@ -0,0 +1,196 @@
+package org.example.finance_management_system.service;
+
+import org.example.finance_management_system.dto.request.TransactionRequest;
+import org.example.finance_management_system.metrics.FinanceMetrics;
+import org.example.finance_management_system.model.Account;
+import org.example.finance_management_system.model.LedgerEntry;
+import org.example.finance_management_system.model.Transaction;
+import org.example.finance_management_system.model.User;
+import org.example.finance_management_system.repository.TransactionHistoryRepository;
+import org.example.finance_management_system.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionServiceTest {
+
+    private static final Long USER_ID = 7L;
+    private static final LocalDate MARCH_1 = LocalDate.of(2024, 3, 1);
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionHistoryRepository transactionHistoryRepository;
+
+    @Mock
+    private DailyTotalsService dailyTotalsService;
+
+    @Mock
+    private TransactionHistoryService transactionHistoryService;
+
+    @Mock
+    private EntityLookupCache entityLookupCache;
+
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private FinanceMetrics financeMetrics;
+
+    @InjectMocks
+    private TransactionService transactionService;
+
+    @Test
+    void createPostsIncomeAndExpenseAgainstTheExternalBook() {
+        ownAccount(3L);
+
+        transactionService.createTransaction(request(3L, Transaction.TransactionType.INCOME, "120.00"), USER_ID);
+        transactionService.createTransaction(request(3L, Transaction.TransactionType.EXPENSE, "45.50"), USER_ID);
+
+        LocalDate today = LocalDate.now();
+        List<LedgerService.Posting> postings = posted(2);
+        assertThat(postings.get(0).getLines()).containsExactly(
+                line(LedgerEntry.Book.ACCOUNT, 3L, "120.00", today),
+                line(LedgerEntry.Book.EXTERNAL, USER_ID, "-120.00", today));
+        assertThat(postings.get(1).getLines()).containsExactly(
+                line(LedgerEntry.Book.ACCOUNT, 3L, "-45.50", today),
+                line(LedgerEntry.Book.EXTERNAL, USER_ID, "45.50", today));
+    }
+
+    @Test
+    void updateFlippingTypeOnSameAccountPostsOneNetLine() {
+        Transaction existing = transaction(10L, 3L, Transaction.TransactionType.EXPENSE, "50.00");
+        when(transactionRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(existing));
+
+        transactionService.updateTransaction(10L, request(3L, Transaction.TransactionType.INCOME, "30.00"),
+                USER_ID, "alice");
+
+        // Revert -50.00 and apply +30.00 as a single line, so a single UPDATE
+        assertThat(posted(1).get(0).getLines()).containsExactly(
+                line(LedgerEntry.Book.ACCOUNT, 3L, "80.00", MARCH_1),
+                line(LedgerEntry.Book.EXTERNAL, USER_ID, "-80.00", MARCH_1));
+    }
+
+    @Test
+    void updateMovingToAnotherAccountRevertsAndAppliesInAccountIdOrder() {
+        Transaction existing = transaction(10L, 9L, Transaction.TransactionType.INCOME, "25.00");
+        when(transactionRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(existing));
+        ownAccount(4L);
+
+        transactionService.updateTransaction(10L, request(4L, Transaction.TransactionType.EXPENSE, "10.00"),
+                USER_ID, "alice");
+
+        // Lower account id first, whichever side of the move it is on
+        assertThat(posted(1).get(0).getLines()).containsExactly(
+                line(LedgerEntry.Book.ACCOUNT, 4L, "-10.00", MARCH_1),
+                line(LedgerEntry.Book.ACCOUNT, 9L, "-25.00", MARCH_1),
+                line(LedgerEntry.Book.EXTERNAL, USER_ID, "35.00", MARCH_1));
+    }
+
+    @Test
+    void updateMovingTheDatePostsTheRevertAndTheApplyOnTheirOwnDays() {
+        Transaction existing = transaction(10L, 3L, Transaction.TransactionType.EXPENSE, "50.00");
+        when(transactionRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(existing));
+        TransactionRequest moved = request(3L, Transaction.TransactionType.EXPENSE, "50.00");
+        moved.setDate(MARCH_1.minusDays(3).atTime(9, 0));
+
+        transactionService.updateTransaction(10L, moved, USER_ID, "alice");
+
+        // The balance does not change, but the history between the two days does
+        assertThat(posted(1).get(0).getLines()).containsExactly(
+                line(LedgerEntry.Book.ACCOUNT, 3L, "-50.00", MARCH_1.minusDays(3)),
+                line(LedgerEntry.Book.ACCOUNT, 3L, "50.00", MARCH_1),
+                line(LedgerEntry.Book.EXTERNAL, USER_ID, "50.00", MARCH_1.minusDays(3)),
+                line(LedgerEntry.Book.EXTERNAL, USER_ID, "-50.00", MARCH_1));
+    }
+
+    @Test
+    void updateLeavingTheAmountUnchangedPostsNothing() {
+        Transaction existing = transaction(10L, 3L, Transaction.TransactionType.EXPENSE, "50.00");
+        when(transactionRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(existing));
+
+        transactionService.updateTransaction(10L, request(3L, Transaction.TransactionType.EXPENSE, "50.00"),
+                USER_ID, "alice");
+
+        verify(ledgerService, never()).post(any());
+    }
+
+    @Test
+    void deleteRevertsTheTransactionEffect() {
+        Transaction existing = transaction(10L, 3L, Transaction.TransactionType.EXPENSE, "50.00");
+        when(transactionRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(existing));
+
+        transactionService.deleteTransaction(10L, USER_ID, "alice");
+
+        LedgerService.Posting posting = posted(1).get(0);
+        assertThat(posting.getKey()).isEqualTo("transaction:10:deleted");
+        assertThat(posting.getLines()).containsExactly(
+                line(LedgerEntry.Book.ACCOUNT, 3L, "50.00", MARCH_1),
+                line(LedgerEntry.Book.EXTERNAL, USER_ID, "-50.00", MARCH_1));
+        verify(transactionRepository).delete(existing);
+    }
+
+    private List<LedgerService.Posting> posted(int count) {
+        ArgumentCaptor<LedgerService.Posting> captor = ArgumentCaptor.forClass(LedgerService.Posting.class);
+        verify(ledgerService, times(count)).post(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private static LedgerService.Line line(LedgerEntry.Book book, Long bookId, String amount, LocalDate date) {
+        return new LedgerService.Line(book, bookId, new BigDecimal(amount), date);
+    }
+
+    private void ownAccount(Long accountId) {
+        when(entityLookupCache.isAccountOwnedBy(accountId, USER_ID)).thenReturn(true);
+        when(entityLookupCache.accountReference(accountId)).thenReturn(account(accountId));
+    }
+
+    private static TransactionRequest request(Long accountId, Transaction.TransactionType type, String amount) {
+        TransactionRequest request = new TransactionRequest();
+        request.setDescription("Test");
+        request.setAmount(new BigDecimal(amount));
+        request.setType(type);
+        request.setCategory(type == Transaction.TransactionType.INCOME
+                ? Transaction.Category.INCOME : Transaction.Category.FOOD);
+        request.setAccountId(accountId);
+        return request;
+    }
+
+    private static Transaction transaction(Long id, Long accountId, Transaction.TransactionType type, String amount) {
+        User user = new User();
+        user.setId(USER_ID);
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setUser(user);
+        transaction.setAccount(account(accountId));
+        transaction.setType(type);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setCategory(Transaction.Category.OTHER);
+        transaction.setDescription("Test");
+        transaction.setDate(MARCH_1.atTime(12, 0));
+        return transaction;
+    }
+
+    private static Account account(Long id) {
+        Account account = new Account();
+        account.setId(id);
+        return account;
+    }
+}
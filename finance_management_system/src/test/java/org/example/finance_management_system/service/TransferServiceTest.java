@@ -0,0 +1,33 @@
+package org.example.finance_management_system.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransferServiceTest {
+
+    @Test
+    void postingKeyIsScopedToTheUserAndTheIdempotencyKey() {
+        assertThat(TransferService.postingKey(7L, "abc-123")).isEqualTo("transfer:7:abc-123");
+        assertThat(TransferService.postingKey(8L, "abc-123")).isEqualTo("transfer:8:abc-123");
+    }
+
+    @Test
+    void transfersWithoutAnIdempotencyKeyGetUniquePostingKeys() {
+        assertThat(TransferService.postingKey(7L, null)).startsWith("transfer:")
+                .isNotEqualTo(TransferService.postingKey(7L, null));
+        assertThat(TransferService.postingKey(7L, " ")).isNotEqualTo(TransferService.postingKey(7L, " "));
+    }
+
+    @Test
+    void longIdempotencyKeysAreHashedToFitTheColumn() {
+        String idempotencyKey = "k".repeat(LedgerService.MAX_KEY_LENGTH);
+
+        String postingKey = TransferService.postingKey(7L, idempotencyKey);
+
+        assertThat(postingKey).startsWith("transfer:7:sha256:")
+                .hasSizeLessThanOrEqualTo(LedgerService.MAX_KEY_LENGTH)
+                .isEqualTo(TransferService.postingKey(7L, idempotencyKey))
+                .isNotEqualTo(TransferService.postingKey(7L, idempotencyKey + "x"));
+    }
+}
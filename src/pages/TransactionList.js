@@ -25,9 +25,11 @@ import { useTheme } from '@mui/material/styles';
 import {
   Add as AddIcon,
   CalendarMonth as CalendarIcon,
-  DeleteSweep as DeleteSweepIcon
+  DeleteSweep as DeleteSweepIcon,
+  FileDownload as FileDownloadIcon
 } from '@mui/icons-material';
 import { Link, useNavigate } from 'react-router-dom';
+import { saveAs } from 'file-saver';
 import TransactionService from '../services/transaction.service';
 import AccountService from '../services/account.service';
 import TransactionTable from '../components/TransactionTable';
@@ -87,6 +89,9 @@ const TransactionList = () => {
   
   // Add state for batch delete dialog
   const [batchDeleteDialog, setBatchDeleteDialog] = useState({ open: false });
+
+  // Export state
+  const [exporting, setExporting] = useState(false);
   
   const t = useTranslation();
 
@@ -438,6 +443,25 @@ const TransactionList = () => {
     }
   };
 
+  // Download the full history from the streaming export endpoint instead of
+  // building the file from the transactions already loaded in the browser
+  const handleExport = async () => {
+    try {
+      setExporting(true);
+      const response = await TransactionService.exportTransactions('csv');
+      saveAs(response.data, `transactions-${new Date().toISOString().slice(0, 10)}.csv`);
+    } catch (err) {
+      console.error('Error exporting transactions:', err);
+      setSnackbar({
+        open: true,
+        message: 'Failed to export transactions. Please try again.',
+        severity: 'error'
+      });
+    } finally {
+      setExporting(false);
+    }
+  };
+
   // Check if a transaction is selected
   const isSelected = (id) => selected.includes(id);
 
@@ -466,6 +490,15 @@ const TransactionList = () => {
           >
             Calendar View
           </Button>
+          <Button
+            variant="outlined"
+            startIcon={<FileDownloadIcon />}
+            onClick={handleExport}
+            disabled={exporting}
+            fullWidth={isMobile}
+          >
+            {exporting ? 'Exporting...' : 'Export CSV'}
+          </Button>
           <Button
             variant="contained"
             startIcon={<AddIcon />}
@@ -188,6 +188,15 @@ const getTransactionsByDate = (date) => {
   return axios.get(`${API_URL}/by-date?date=${date}`, { headers: authHeader() });
 };
 
+// Download all transactions as CSV or NDJSON; the server streams rows so large histories
+// never have to be loaded into the browser first
+const exportTransactions = (format = 'csv') => {
+  return axios.get(`${API_URL}/export?format=${format}`, {
+    headers: authHeader(),
+    responseType: 'blob'
+  });
+};
+
 const TransactionService = {
   getTransactions,
   getTransaction,
@@ -202,7 +211,8 @@ const TransactionService = {
   getTransactionHistory,
   hasTransactionHistory,
   getTransactionsForCalendar,  // Add this to the service object
-  getTransactionsByDate
+  getTransactionsByDate,
+  exportTransactions
 };
 
 export default TransactionService;